@@ -1,24 +1,139 @@
 package dev.toszek.tiara.items.catalog;
 
+import dev.toszek.tiara.items.catalog.command.BulkDeleteItemsCommand;
+import dev.toszek.tiara.items.catalog.command.BulkUpdatePriceCommand;
+import dev.toszek.tiara.items.catalog.command.CreateItemsCommand;
+import dev.toszek.tiara.items.catalog.command.GetItemsCommand;
 import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.command.ItemFileFormat;
 import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import dev.toszek.tiara.items.catalog.dto.ItemBatchDto;
+import dev.toszek.tiara.items.catalog.dto.ItemCursorPageDto;
 import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.dto.ItemImportSummaryDto;
+import dev.toszek.tiara.items.catalog.dto.ItemSuggestionDto;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface ItemCatalogApi {
+    int MAX_SUGGESTIONS = 50;
+
     Optional<ItemDto> findById(UUID itemUuid);
 
+    /**
+     * Items with given uuids, served from cache where possible, all other items are read with one query.
+     * Duplicated uuids are returned once.
+     */
+    ItemBatchDto findAllByIds(@Valid @NotNull GetItemsCommand command);
+
+    /**
+     * Sort of pageable may use one of id, name, price and creationDate, id is used by default and breaks ties.
+     *
+     * @throws dev.toszek.tiara.items.catalog.exception.InvalidSortException for other sort properties
+     */
     Page<ItemDto> findAllPageable(Pageable pageable, ItemFetchFilter filter);
 
+    /**
+     * Like {@link #findAllPageable(Pageable, ItemFetchFilter)} but without total count, for clients that only need
+     * to know if there is a next page. Always one database round-trip.
+     */
+    Slice<ItemDto> findAllSlice(Pageable pageable, ItemFetchFilter filter);
+
+    /**
+     * Full-text search over name and description, items containing all words of the query, most relevant first.
+     * Served from in-memory index, sort of pageable is ignored.
+     */
+    Page<ItemDto> search(@NotBlank String query, Pageable pageable);
+
+    /**
+     * Names starting with the prefix (ignoring case and accents) in alphabetical order, for typeahead.
+     * Served from in-memory index, never touches the database.
+     */
+    List<ItemSuggestionDto> suggest(@NotBlank String prefix, @Min(1) @Max(ItemCatalogApi.MAX_SUGGESTIONS) int limit);
+
+    /**
+     * Keyset (cursor) pagination, page fetch cost does not depend on how deep client already is.
+     *
+     * @param cursor opaque cursor returned with previous page, null for the first page
+     * @param sort   used only for the first page, later pages use sort encoded in cursor
+     */
+    ItemCursorPageDto findAllByCursor(String cursor, @Min(1) @Max(1000) int size, Sort sort, ItemFetchFilter filter);
+
     ItemDto createItem(@Valid SaveItemCommand saveItemCommand);
 
+    /**
+     * Creates all items in one transaction, inserts are sent to the database in JDBC batches.
+     */
+    List<ItemDto> createItems(@Valid CreateItemsCommand createItemsCommand);
+
+    /**
+     * Streams items from reader and creates valid ones, committing them in chunks. Invalid records are skipped
+     * and reported in returned summary.
+     */
+    ItemImportSummaryDto importItems(Reader reader, ItemFileFormat format);
+
+    /**
+     * Writes all items matching filter to output stream in id order, rows are read from the database
+     * and written one by one, so memory use does not depend on number of exported items.
+     *
+     * @return number of exported items
+     */
+    long exportItems(ItemFetchFilter filter, ItemFileFormat format, OutputStream outputStream);
+
     void deleteItem(UUID itemUuid);
 
+    /**
+     * Deletes item only if it is in one of expected versions, with a single conditional statement.
+     *
+     * @throws dev.toszek.tiara.items.catalog.exception.ItemVersionMismatchException when item is missing or in other version
+     */
+    void deleteItem(UUID itemUuid, @NotEmpty Collection<Integer> expectedVersions);
+
     ItemDto updateItem(@Valid @NotNull UUID itemUuid, @Valid SaveItemCommand updatedItem);
+
+    /**
+     * Updates item only if it is in one of expected versions, with a single conditional statement.
+     *
+     * @throws dev.toszek.tiara.items.catalog.exception.ItemVersionMismatchException when item is missing or in other version
+     */
+    ItemDto updateItem(@Valid @NotNull UUID itemUuid, @Valid SaveItemCommand updatedItem, @NotEmpty Collection<Integer> expectedVersions);
+
+    /**
+     * Opaque version of the whole catalog, it changes with every committed change of any item.
+     */
+    String getCatalogVersion();
+
+    /**
+     * @return true if no item that could match filter changed since given catalog version was current
+     */
+    boolean isCatalogUnchangedSince(String catalogVersion, ItemFetchFilter filter);
+
+    /**
+     * Deletes selected items with set-based statements, a few statements per chunk of items instead of per item.
+     *
+     * @return number of deleted items
+     */
+    long deleteItems(@Valid @NotNull BulkDeleteItemsCommand command);
+
+    /**
+     * Changes price of selected items with set-based statements, version and last modification date are updated as well.
+     *
+     * @return number of updated items
+     */
+    long updatePrices(@Valid @NotNull BulkUpdatePriceCommand command);
 }
@@ -0,0 +1,27 @@
+package dev.toszek.tiara.items.catalog.command;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Deletes items with given uuids or all items matching filter, exactly one of them has to be set,
+ * filter needs at least one criterion.
+ */
+public record BulkDeleteItemsCommand(@Size(max = MAX_UUIDS) List<@NotNull UUID> uuids,
+                                     ItemFetchFilter filter) {
+    public static final int MAX_UUIDS = 10_000;
+
+    @AssertTrue(message = "exactly one of uuids or filter has to be set")
+    public boolean isSelectionValid() {
+        return (uuids == null) != (filter == null);
+    }
+
+    @AssertTrue(message = "filter has to have at least one criterion, items are not changed all at once by an empty filter")
+    public boolean isFilterValid() {
+        return filter == null || filter.hasCriteria();
+    }
+}
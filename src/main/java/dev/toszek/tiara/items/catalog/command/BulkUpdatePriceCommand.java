@@ -0,0 +1,43 @@
+package dev.toszek.tiara.items.catalog.command;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Changes price of items with given uuids or of all items matching filter, exactly one of them has to be set,
+ * filter needs at least one criterion.
+ * New price is either set to {@code price}, or current price is moved by {@code priceChange}
+ * or by {@code priceChangePercent} percent (rounded to cents), exactly one of them has to be set.
+ * Changed prices are kept between 0 and {@value #MAX_PRICE}, the largest price the price column holds.
+ */
+public record BulkUpdatePriceCommand(@Size(max = BulkDeleteItemsCommand.MAX_UUIDS) List<@NotNull UUID> uuids,
+                                     ItemFetchFilter filter,
+                                     @DecimalMin("0") @DecimalMax(MAX_PRICE) @Digits(integer = 6, fraction = 2) BigDecimal price,
+                                     @DecimalMin("-" + MAX_PRICE) @DecimalMax(MAX_PRICE) @Digits(integer = 6, fraction = 2) BigDecimal priceChange,
+                                     @DecimalMin("-100") @DecimalMax("10000") BigDecimal priceChangePercent) {
+    public static final String MAX_PRICE = "999999.99";
+
+    @AssertTrue(message = "exactly one of uuids or filter has to be set")
+    public boolean isSelectionValid() {
+        return (uuids == null) != (filter == null);
+    }
+
+    @AssertTrue(message = "filter has to have at least one criterion, items are not changed all at once by an empty filter")
+    public boolean isFilterValid() {
+        return filter == null || filter.hasCriteria();
+    }
+
+    @AssertTrue(message = "exactly one of price, priceChange or priceChangePercent has to be set")
+    public boolean isPriceOperationValid() {
+        return Stream.of(price, priceChange, priceChangePercent).filter(value -> value != null).count() == 1;
+    }
+}
@@ -6,5 +6,6 @@ import jakarta.validation.constraints.Size;
 
 import java.util.List;
 
-public record CreateItemsCommand(@NotNull @Size(max = 50) @Valid List<SaveItemCommand> items) {
+public record CreateItemsCommand(@NotNull @Size(max = CreateItemsCommand.MAX_ITEMS) @Valid List<SaveItemCommand> items) {
+    public static final int MAX_ITEMS = 10_000;
 }
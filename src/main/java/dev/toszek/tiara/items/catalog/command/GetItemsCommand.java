@@ -0,0 +1,12 @@
+package dev.toszek.tiara.items.catalog.command;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+public record GetItemsCommand(@NotEmpty @Size(max = MAX_UUIDS) List<@NotNull UUID> uuids) {
+    public static final int MAX_UUIDS = 1000;
+}
@@ -7,4 +7,22 @@ public record ItemFetchFilter(String name,
                               BigDecimal price,
                               BigDecimal lessThenPrice,
                               BigDecimal greaterThanPrice) {
+
+    /**
+     * Filter with equal meaning produces equal (and same hash) instance, so it can be used as a cache key.
+     */
+    public ItemFetchFilter normalized() {
+        return new ItemFetchFilter(name, description, normalize(price), normalize(lessThenPrice), normalize(greaterThanPrice));
+    }
+
+    /**
+     * Filter without any criterion matches every item.
+     */
+    public boolean hasCriteria() {
+        return name != null || description != null || price != null || lessThenPrice != null || greaterThanPrice != null;
+    }
+
+    private static BigDecimal normalize(final BigDecimal value) {
+        return value == null ? null : value.stripTrailingZeros();
+    }
 }
@@ -0,0 +1,16 @@
+package dev.toszek.tiara.items.catalog.command;
+
+/**
+ * Format of item import and export files.
+ */
+public enum ItemFileFormat {
+    /**
+     * One item json object per line.
+     */
+    NDJSON,
+    /**
+     * Header line with column names, then one item per record. Import needs {@code name}, {@code description}
+     * and {@code price} columns in any order.
+     */
+    CSV
+}
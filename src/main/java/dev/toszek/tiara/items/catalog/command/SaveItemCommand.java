@@ -1,11 +1,17 @@
 package dev.toszek.tiara.items.catalog.command;
 
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
 
-public record SaveItemCommand(@NotBlank String name,
-                              @NotNull String description,
-                              @NotNull BigDecimal price) {
+/**
+ * Limits follow the item table columns, so a valid command is never rejected by the database.
+ */
+public record SaveItemCommand(@NotBlank @Size(max = 255) String name,
+                              @NotNull @Size(max = 5000) String description,
+                              @NotNull @DecimalMin("0") @Digits(integer = 6, fraction = 2) BigDecimal price) {
 }
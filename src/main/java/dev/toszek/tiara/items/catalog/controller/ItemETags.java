@@ -0,0 +1,68 @@
+package dev.toszek.tiara.items.catalog.controller;
+
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.exception.ItemVersionMismatchException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Strong entity tags of items, {@code "<uuid>-<version>"}, and catalog listings, {@code "<catalog version>"}.
+ */
+final class ItemETags {
+    private static final String ANY = "*";
+
+    private ItemETags() {
+    }
+
+    static String of(final ItemDto item) {
+        return quote(item.uuid() + "-" + item.version());
+    }
+
+    static String ofCatalog(final String catalogVersion) {
+        return quote(catalogVersion);
+    }
+
+    /**
+     * @return unquoted values of strong tags listed in If-None-Match or If-Match header, weak tags are skipped
+     */
+    static List<String> parse(final String header) {
+        final List<String> tags = new ArrayList<>();
+        for (String tag : header.split(",")) {
+            tag = tag.trim();
+            if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                tags.add(tag.substring(1, tag.length() - 1));
+            }
+        }
+        return tags;
+    }
+
+    static boolean isAny(final String header) {
+        return ANY.equals(header.trim());
+    }
+
+    /**
+     * @return item versions listed in If-Match header for given item
+     * @throws ItemVersionMismatchException when header does not name any version of the item, such precondition can never hold
+     */
+    static Set<Integer> versionsOf(final String ifMatch, final UUID itemUuid) {
+        final String prefix = itemUuid + "-";
+        final Set<Integer> versions = parse(ifMatch).stream()
+                .filter(tag -> tag.startsWith(prefix))
+                .map(tag -> tag.substring(prefix.length()))
+                .filter(version -> !version.isEmpty() && version.chars().allMatch(Character::isDigit) && version.length() < 10)
+                .map(Integer::valueOf)
+                .collect(Collectors.toSet());
+        if (versions.isEmpty()) {
+            throw new ItemVersionMismatchException();
+        }
+        return versions;
+    }
+
+    private static String quote(final String value) {
+        return "\"" + value + "\"";
+    }
+}
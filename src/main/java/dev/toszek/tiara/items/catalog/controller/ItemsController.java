@@ -1,38 +1,57 @@
 package dev.toszek.tiara.items.catalog.controller;
 
 import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.BulkDeleteItemsCommand;
+import dev.toszek.tiara.items.catalog.command.BulkUpdatePriceCommand;
 import dev.toszek.tiara.items.catalog.command.CreateItemsCommand;
+import dev.toszek.tiara.items.catalog.command.GetItemsCommand;
 import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.command.ItemFileFormat;
 import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import dev.toszek.tiara.items.catalog.dto.BulkOperationResultDto;
+import dev.toszek.tiara.items.catalog.dto.ItemBatchDto;
+import dev.toszek.tiara.items.catalog.dto.ItemCursorPageDto;
 import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.dto.ItemImportSummaryDto;
+import dev.toszek.tiara.items.catalog.dto.ItemSuggestionDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeIn;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -45,10 +64,11 @@ import java.util.UUID;
         paramName = "X-Api-Key"
 )
 class ItemsController {
+    private static final String CSV_VALUE = "text/csv";
+
     private final ItemCatalogApi itemCatalogApi;
 
     @PostMapping
-    @CacheEvict(value = "items", allEntries = true) // Clear cache on delete or update
     @Operation(
             summary = "Creates item in item database",
             security = @SecurityRequirement(name = "X-Api-Key")
@@ -59,31 +79,96 @@ class ItemsController {
     }
 
     @PostMapping("/bulk")
-    @CacheEvict(value = "items", allEntries = true) // Clear cache on delete or update
-    @Transactional // wrapping bulk item creation in one transaction
     @Operation(
-            summary = "Creates items in item database, max items allowed at once = 50",
+            summary = "Creates items in item database in one transaction, max items allowed at once = " + CreateItemsCommand.MAX_ITEMS,
             security = @SecurityRequirement(name = "X-Api-Key")
     )
     public ResponseEntity<List<ItemDto>> createItems(@RequestBody @Valid CreateItemsCommand createItemsCommand) {
-        List<ItemDto> savedItems = new ArrayList<>();
-        createItemsCommand.items().forEach(createItemCommand -> savedItems.add(itemCatalogApi.createItem(createItemCommand)));
-        return new ResponseEntity<>(savedItems, HttpStatus.CREATED);
+        return new ResponseEntity<>(itemCatalogApi.createItems(createItemsCommand), HttpStatus.CREATED);
+    }
+
+    @PostMapping("/bulk/delete")
+    @Operation(
+            summary = "Deletes items with given uuids or all items matching filter",
+            security = @SecurityRequirement(name = "X-Api-Key")
+    )
+    public ResponseEntity<BulkOperationResultDto> deleteItems(@RequestBody @Valid BulkDeleteItemsCommand command) {
+        return new ResponseEntity<>(new BulkOperationResultDto(itemCatalogApi.deleteItems(command)), HttpStatus.OK);
+    }
+
+    @PostMapping("/bulk/price")
+    @Operation(
+            summary = "Sets or adjusts price of items with given uuids or of all items matching filter",
+            security = @SecurityRequirement(name = "X-Api-Key")
+    )
+    public ResponseEntity<BulkOperationResultDto> updatePrices(@RequestBody @Valid BulkUpdatePriceCommand command) {
+        return new ResponseEntity<>(new BulkOperationResultDto(itemCatalogApi.updatePrices(command)), HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Imports items from newline delimited json, one item per line, valid items are committed in chunks",
+            security = @SecurityRequirement(name = "X-Api-Key")
+    )
+    public ItemImportSummaryDto importItemsNdjson(Reader body) {
+        return itemCatalogApi.importItems(body, ItemFileFormat.NDJSON);
+    }
+
+    @PostMapping(value = "/import", consumes = CSV_VALUE)
+    @Operation(
+            summary = "Imports items from csv with name, description and price header, valid items are committed in chunks",
+            security = @SecurityRequirement(name = "X-Api-Key")
+    )
+    public ItemImportSummaryDto importItemsCsv(Reader body) {
+        return itemCatalogApi.importItems(body, ItemFileFormat.CSV);
+    }
+
+    @GetMapping("/export")
+    @Operation(
+            summary = "Streams all items matching search criteria as newline delimited json or csv",
+            security = @SecurityRequirement(name = "X-Api-Key")
+    )
+    public void exportItems(@RequestParam(defaultValue = "NDJSON") ItemFileFormat format,
+                            @RequestParam(required = false) String name,
+                            @RequestParam(required = false) String description,
+                            @RequestParam(required = false) BigDecimal price,
+                            @RequestParam(required = false) BigDecimal lessThenPrice,
+                            @RequestParam(required = false) BigDecimal greaterThenPrice,
+                            HttpServletResponse response) throws IOException {
+        final boolean csv = format == ItemFileFormat.CSV;
+        response.setContentType(csv ? CSV_VALUE : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(csv ? "items.csv" : "items.ndjson").build().toString());
+        // written straight to the response, nothing is buffered beyond the output stream buffer
+        itemCatalogApi.exportItems(new ItemFetchFilter(name, description, price, lessThenPrice, greaterThenPrice), format,
+                response.getOutputStream());
     }
 
-    @Cacheable("items") // Cache the result of getItemById
     @GetMapping("/{itemUuid}")
     @Operation(
             summary = "Return item by uuid",
             security = @SecurityRequirement(name = "X-Api-Key")
     )
     public ResponseEntity<ItemDto> getItemById(@PathVariable("itemUuid") UUID itemUuid) {
+        // with ETag and Last-Modified set, matching If-None-Match / If-Modified-Since is answered with 304 and no body
         return itemCatalogApi.findById(itemUuid)
-                .map(item -> new ResponseEntity<>(item, HttpStatus.OK))
+                .map(item -> ResponseEntity.ok()
+                        .eTag(ItemETags.of(item))
+                        .lastModified(item.lastModifiedDate() != null ? item.lastModifiedDate() : item.creationDate())
+                        .body(item))
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
-    @Cacheable("items") // Cache the result of getAllItems
+    @PostMapping("/batch-get")
+    @Operation(
+            summary = "Return items with given uuids and uuids that were not found, max uuids allowed at once = " + GetItemsCommand.MAX_UUIDS,
+            security = @SecurityRequirement(name = "X-Api-Key")
+    )
+    public ItemBatchDto getItemsByIds(@RequestBody @Valid GetItemsCommand command) {
+        return itemCatalogApi.findAllByIds(command);
+    }
+
     @GetMapping
     @Operation(
             summary = "Return items based on search criteria",
@@ -94,29 +179,103 @@ class ItemsController {
                                                      @RequestParam(required = false) String description,
                                                      @RequestParam(required = false) BigDecimal price,
                                                      @RequestParam(required = false) BigDecimal lessThenPrice,
-                                                     @RequestParam(required = false) BigDecimal greaterThenPrice) {
-        final Page<ItemDto> itemsPage = itemCatalogApi.findAllPageable(pageable, new ItemFetchFilter(name, description, price, lessThenPrice, greaterThenPrice));
+                                                     @RequestParam(required = false) BigDecimal greaterThenPrice,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        final ItemFetchFilter filter = new ItemFetchFilter(name, description, price, lessThenPrice, greaterThenPrice);
+        if (ifNoneMatch != null) {
+            // still valid when nothing that could match the filter changed, even if other items did
+            final Optional<String> unchanged = ItemETags.parse(ifNoneMatch).stream()
+                    .filter(catalogVersion -> itemCatalogApi.isCatalogUnchangedSince(catalogVersion, filter))
+                    .findFirst();
+            if (unchanged.isPresent()) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ItemETags.ofCatalog(unchanged.get())).build();
+            }
+        }
+        // version is read before the page, change committed meanwhile makes next request reload rather than return stale page
+        final String catalogVersion = itemCatalogApi.getCatalogVersion();
+        final Page<ItemDto> itemsPage = itemCatalogApi.findAllPageable(pageable, filter);
+        return ResponseEntity.ok().eTag(ItemETags.ofCatalog(catalogVersion)).body(itemsPage);
+    }
+
+    @GetMapping("/search")
+    @Operation(
+            summary = "Full-text search in item name and description, returns items containing all words of q, most relevant first",
+            security = @SecurityRequirement(name = "X-Api-Key")
+    )
+    public ResponseEntity<Page<ItemDto>> searchItems(@RequestParam("q") String query,
+                                                     @ParameterObject Pageable pageable) {
+        return new ResponseEntity<>(itemCatalogApi.search(query, pageable), HttpStatus.OK);
+    }
+
+    @GetMapping("/suggest")
+    @Operation(
+            summary = "Typeahead, names and uuids of items which name starts with prefix, in alphabetical order",
+            security = @SecurityRequirement(name = "X-Api-Key")
+    )
+    public ResponseEntity<List<ItemSuggestionDto>> suggestItems(@RequestParam("prefix") @NotBlank String prefix,
+                                                                @RequestParam(value = "limit", defaultValue = "10")
+                                                                @Min(1) @Max(ItemCatalogApi.MAX_SUGGESTIONS) int limit) {
+        return new ResponseEntity<>(itemCatalogApi.suggest(prefix, limit), HttpStatus.OK);
+    }
+
+    @GetMapping(params = "mode=slice")
+    @Operation(
+            summary = "Return items based on search criteria without total count (mode=slice), cheaper than page when totals are not needed",
+            security = @SecurityRequirement(name = "X-Api-Key")
+    )
+    public ResponseEntity<Slice<ItemDto>> getAllItemsSlice(@ParameterObject Pageable pageable,
+                                                           @RequestParam(required = false) String name,
+                                                           @RequestParam(required = false) String description,
+                                                           @RequestParam(required = false) BigDecimal price,
+                                                           @RequestParam(required = false) BigDecimal lessThenPrice,
+                                                           @RequestParam(required = false) BigDecimal greaterThenPrice) {
+        final Slice<ItemDto> itemsSlice = itemCatalogApi.findAllSlice(pageable, new ItemFetchFilter(name, description, price, lessThenPrice, greaterThenPrice));
+        return new ResponseEntity<>(itemsSlice, HttpStatus.OK);
+    }
+
+    @GetMapping(params = "mode=cursor")
+    @Operation(
+            summary = "Return items based on search criteria using keyset pagination (mode=cursor), " +
+                    "pass nextCursor from response as cursor to fetch next page",
+            security = @SecurityRequirement(name = "X-Api-Key")
+    )
+    public ResponseEntity<ItemCursorPageDto> getAllItemsByCursor(@RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "20") int size,
+                                                                 Sort sort,
+                                                                 @RequestParam(required = false) String name,
+                                                                 @RequestParam(required = false) String description,
+                                                                 @RequestParam(required = false) BigDecimal price,
+                                                                 @RequestParam(required = false) BigDecimal lessThenPrice,
+                                                                 @RequestParam(required = false) BigDecimal greaterThenPrice) {
+        final ItemCursorPageDto itemsPage = itemCatalogApi.findAllByCursor(cursor, size, sort, new ItemFetchFilter(name, description, price, lessThenPrice, greaterThenPrice));
         return new ResponseEntity<>(itemsPage, HttpStatus.OK);
     }
 
-    @CacheEvict(value = "items", allEntries = true) // Clear cache on delete or update
     @DeleteMapping("/{itemUuid}")
     @Operation(
-            summary = "Removes item from database if exists",
+            summary = "Removes item from database if exists, with If-Match only if item is still in given version",
             security = @SecurityRequirement(name = "X-Api-Key")
     )
-    public ResponseEntity<Void> deleteItem(@PathVariable("itemUuid") UUID itemUuid) {
-        itemCatalogApi.deleteItem(itemUuid);
+    public ResponseEntity<Void> deleteItem(@PathVariable("itemUuid") UUID itemUuid,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null && !ItemETags.isAny(ifMatch)) {
+            itemCatalogApi.deleteItem(itemUuid, ItemETags.versionsOf(ifMatch, itemUuid));
+        } else {
+            itemCatalogApi.deleteItem(itemUuid);
+        }
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
-    @CacheEvict(value = "items", allEntries = true) // Clear cache on delete or update
     @PutMapping("/{itemUuid}")
     @Operation(
-            summary = "Updates item in database, by replacing item values with provided ones.",
+            summary = "Updates item in database, by replacing item values with provided ones. With If-Match only if item is still in given version.",
             security = @SecurityRequirement(name = "X-Api-Key")
     )
-    public ResponseEntity<ItemDto> updateItem(@PathVariable("itemUuid") UUID itemUuid, @RequestBody @Valid SaveItemCommand updatedItem) {
-        return new ResponseEntity<>(itemCatalogApi.updateItem(itemUuid, updatedItem), HttpStatus.OK);
+    public ResponseEntity<ItemDto> updateItem(@PathVariable("itemUuid") UUID itemUuid, @RequestBody @Valid SaveItemCommand updatedItem,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        final ItemDto item = ifMatch != null && !ItemETags.isAny(ifMatch)
+                ? itemCatalogApi.updateItem(itemUuid, updatedItem, ItemETags.versionsOf(ifMatch, itemUuid))
+                : itemCatalogApi.updateItem(itemUuid, updatedItem);
+        return ResponseEntity.ok().eTag(ItemETags.of(item)).body(item);
     }
 }
@@ -0,0 +1,4 @@
+package dev.toszek.tiara.items.catalog.dto;
+
+public record BulkOperationResultDto(long affectedItems) {
+}
@@ -0,0 +1,12 @@
+package dev.toszek.tiara.items.catalog.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * @param items    found items in order of requested uuids
+ * @param notFound requested uuids without an item
+ */
+public record ItemBatchDto(List<ItemDto> items,
+                           List<UUID> notFound) {
+}
@@ -0,0 +1,8 @@
+package dev.toszek.tiara.items.catalog.dto;
+
+import java.util.List;
+
+public record ItemCursorPageDto(List<ItemDto> content,
+                                String nextCursor,
+                                boolean hasNext) {
+}
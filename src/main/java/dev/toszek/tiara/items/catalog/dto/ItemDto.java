@@ -9,5 +9,6 @@ public record ItemDto(UUID uuid,
                       String description,
                       BigDecimal price,
                       Instant creationDate,
-                      Instant lastModifiedDate) {
+                      Instant lastModifiedDate,
+                      int version) {
 }
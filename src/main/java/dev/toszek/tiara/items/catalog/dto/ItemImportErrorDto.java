@@ -0,0 +1,8 @@
+package dev.toszek.tiara.items.catalog.dto;
+
+/**
+ * @param line line of the input where invalid record starts, counted from 1
+ */
+public record ItemImportErrorDto(long line,
+                                 String message) {
+}
@@ -0,0 +1,14 @@
+package dev.toszek.tiara.items.catalog.dto;
+
+import java.util.List;
+
+/**
+ * @param errors          first invalid records, at most configured number of them
+ * @param errorsTruncated true when there were more invalid records than reported in {@code errors}
+ */
+public record ItemImportSummaryDto(long recordsRead,
+                                   long created,
+                                   long failed,
+                                   List<ItemImportErrorDto> errors,
+                                   boolean errorsTruncated) {
+}
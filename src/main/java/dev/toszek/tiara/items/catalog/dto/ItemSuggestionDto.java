@@ -0,0 +1,7 @@
+package dev.toszek.tiara.items.catalog.dto;
+
+import java.util.UUID;
+
+public record ItemSuggestionDto(UUID uuid,
+                                String name) {
+}
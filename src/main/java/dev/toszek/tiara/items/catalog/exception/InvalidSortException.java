@@ -0,0 +1,11 @@
+package dev.toszek.tiara.items.catalog.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSortException extends RuntimeException {
+    public InvalidSortException(final String message) {
+        super(message);
+    }
+}
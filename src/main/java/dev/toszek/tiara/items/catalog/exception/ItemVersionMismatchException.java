@@ -0,0 +1,11 @@
+package dev.toszek.tiara.items.catalog.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Conditional write did not find item in expected version, item was changed or deleted meanwhile.
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class ItemVersionMismatchException extends RuntimeException {
+}
@@ -1,51 +1,247 @@
 package dev.toszek.tiara.items.catalog.internal;
 
 import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.BulkDeleteItemsCommand;
+import dev.toszek.tiara.items.catalog.command.BulkUpdatePriceCommand;
+import dev.toszek.tiara.items.catalog.command.CreateItemsCommand;
+import dev.toszek.tiara.items.catalog.command.GetItemsCommand;
 import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.command.ItemFileFormat;
 import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import dev.toszek.tiara.items.catalog.dto.ItemBatchDto;
+import dev.toszek.tiara.items.catalog.dto.ItemCursorPageDto;
 import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.dto.ItemImportSummaryDto;
+import dev.toszek.tiara.items.catalog.dto.ItemSuggestionDto;
+import dev.toszek.tiara.items.catalog.exception.InvalidCursorException;
 import dev.toszek.tiara.items.catalog.exception.ItemNotFoundException;
+import dev.toszek.tiara.items.catalog.exception.ItemVersionMismatchException;
+import dev.toszek.tiara.items.catalog.internal.cache.ItemByIdCache;
+import dev.toszek.tiara.items.catalog.internal.cache.ItemCatalogChangeLog;
+import dev.toszek.tiara.items.catalog.internal.cache.ItemCountCache;
+import dev.toszek.tiara.items.catalog.internal.cache.ItemQueryCache;
+import dev.toszek.tiara.items.catalog.internal.columnar.ItemColumnStore;
 import dev.toszek.tiara.items.catalog.internal.entity.Item;
 import dev.toszek.tiara.items.catalog.internal.entity.Item_;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangeBatchEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemsChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.exporter.ItemExporter;
+import dev.toszek.tiara.items.catalog.internal.filter.ItemFilterMatcher;
+import dev.toszek.tiara.items.catalog.internal.importer.ItemImporter;
 import dev.toszek.tiara.items.catalog.internal.mapper.ItemMapper;
 import dev.toszek.tiara.items.catalog.internal.repository.ItemRepository;
+import dev.toszek.tiara.items.catalog.internal.search.ItemSearchIndex;
+import dev.toszek.tiara.items.catalog.internal.search.ItemSuggestIndex;
+import dev.toszek.tiara.shared.timing.RequestPhase;
+import dev.toszek.tiara.shared.timing.RequestTiming;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import java.io.OutputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Validated
+@Timed("items.catalog.api")
 class ItemCatalogApiImpl implements ItemCatalogApi {
+    private static final int BULK_CHUNK_SIZE = 1000;
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+    private static final BigDecimal MAX_PRICE = new BigDecimal(BulkUpdatePriceCommand.MAX_PRICE);
+    private static final String CATALOG_VERSION_SEPARATOR = ".";
+
     private final ItemRepository itemRepository;
     private final ItemMapper itemMapper;
+    private final ItemByIdCache itemByIdCache;
+    private final ItemCountCache itemCountCache;
+    private final ItemQueryCache itemQueryCache;
+    private final ItemCatalogChangeLog changeLog;
+    private final ItemImporter itemImporter;
+    private final ItemExporter itemExporter;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemColumnStore itemColumnStore;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public Optional<ItemDto> findById(final UUID itemUuid) {
-        // Instead of mapping entity to dto, return dto from repository by using dynamic projection
-        // return itemRepository.findItemByUuid(itemUuid).map(itemMapper::toDto);
-        return itemRepository.findItemByUuid(itemUuid, ItemDto.class);
+        // Cache loads dto from repository by using dynamic projection, instead of mapping entity to dto
+        final long start = RequestTiming.start();
+        try {
+            return Optional.ofNullable(itemByIdCache.get(itemUuid));
+        } finally {
+            RequestTiming.stop(RequestPhase.CACHE, start);
+        }
+    }
+
+    @Override
+    public ItemBatchDto findAllByIds(@Valid @NotNull final GetItemsCommand command) {
+        final long start = RequestTiming.start();
+        final Map<UUID, ItemDto> found;
+        try {
+            found = itemByIdCache.getAll(command.uuids());
+        } finally {
+            RequestTiming.stop(RequestPhase.CACHE, start);
+        }
+        final List<ItemDto> items = new ArrayList<>(found.size());
+        final List<UUID> notFound = new ArrayList<>();
+        for (UUID uuid : new LinkedHashSet<>(command.uuids())) {
+            final ItemDto item = found.get(uuid);
+            if (item != null) {
+                items.add(item);
+            } else {
+                notFound.add(uuid);
+            }
+        }
+        return new ItemBatchDto(items, notFound);
     }
 
     @Override
     public Page<ItemDto> findAllPageable(final Pageable pageable, final ItemFetchFilter filter) {
-        return itemRepository.findAll(getItemSpecification(filter), pageable)
-                .map(itemMapper::toDto);
+        final Pageable indexedPageable = withIndexedSort(pageable);
+        if (itemColumnStore.isReady()) {
+            return itemColumnStore.findAll(filter, indexedPageable);
+        }
+        final long start = RequestTiming.start();
+        try {
+            return itemQueryCache.get(filter, indexedPageable, () -> loadPage(indexedPageable, filter));
+        } finally {
+            RequestTiming.stop(RequestPhase.CACHE, start);
+        }
+    }
+
+    private Page<ItemDto> loadPage(final Pageable pageable, final ItemFetchFilter filter) {
+        // content query only, total comes from count cache, or is not needed at all when it is known from the content
+        final Specification<Item> specification = getItemSpecification(filter);
+        final Slice<Item> slice = itemRepository.findSlice(specification, pageable);
+        final Page<Item> page = PageableExecutionUtils.getPage(slice.getContent(), pageable,
+                () -> itemCountCache.count(filter, () -> itemRepository.count(specification)));
+        return timedMapping(() -> page.map(itemMapper::toDto));
+    }
+
+    @Override
+    public Slice<ItemDto> findAllSlice(final Pageable pageable, final ItemFetchFilter filter) {
+        final Slice<Item> slice = itemRepository.findSlice(getItemSpecification(filter), withIndexedSort(pageable));
+        return timedMapping(() -> slice.map(itemMapper::toDto));
+    }
+
+    private static <T> T timedMapping(final Supplier<T> mapping) {
+        final long start = RequestTiming.start();
+        try {
+            return mapping.get();
+        } finally {
+            RequestTiming.stop(RequestPhase.MAPPING, start);
+        }
+    }
+
+    private static Pageable withIndexedSort(final Pageable pageable) {
+        final Sort sort = ItemSortField.indexedSort(pageable.getSort());
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort) : Pageable.unpaged(sort);
+    }
+
+    @Override
+    public Page<ItemDto> search(final String query, final Pageable pageable) {
+        final ItemSearchIndex.Hits hits = itemSearchIndex.search(query, pageable.getOffset(), pageable.getPageSize());
+        // one query for the whole page, then back to ranking order
+        final Map<UUID, ItemDto> items = itemRepository.findByUuidIn(hits.uuids(), ItemDto.class).stream()
+                .collect(Collectors.toMap(ItemDto::uuid, Function.identity()));
+        final List<ItemDto> content = hits.uuids().stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, hits.total());
+    }
+
+    @Override
+    public List<ItemSuggestionDto> suggest(final String prefix, final int limit) {
+        return itemSuggestIndex.suggest(prefix, limit);
+    }
+
+    @Override
+    public ItemCursorPageDto findAllByCursor(final String cursor, final int size, final Sort sort, final ItemFetchFilter filter) {
+        final ItemCursor position = cursor == null || cursor.isBlank() ? null : ItemCursor.decode(cursor);
+        final ItemSortField sortField;
+        final Sort.Direction direction;
+        if (position != null) {
+            sortField = position.sortField();
+            direction = position.direction();
+        } else {
+            final Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc(ItemSortField.ID.getProperty()));
+            sortField = ItemSortField.fromProperty(order.getProperty())
+                    .orElseThrow(() -> new InvalidCursorException("Unsupported cursor sort property: " + order.getProperty()));
+            direction = order.getDirection();
+        }
+
+        Specification<Item> specification = getItemSpecification(filter);
+        if (position != null) {
+            specification = specification.and(getCursorSpecification(position));
+        }
+        final Sort keysetSort = ItemCursor.keysetSort(sortField, direction);
+        // one extra row tells us if there is a next page, without running count query
+        final List<Item> items = itemRepository.findBy(specification, query -> query.sortBy(keysetSort).limit(size + 1).all());
+
+        final boolean hasNext = items.size() > size;
+        final List<Item> pageItems = hasNext ? items.subList(0, size) : items;
+        final String nextCursor = hasNext ? ItemCursor.after(pageItems.get(size - 1), sortField, direction).encode() : null;
+        return new ItemCursorPageDto(pageItems.stream().map(itemMapper::toDto).toList(), nextCursor, hasNext);
     }
 
-    private static Specification<Item> getItemSpecification(final ItemFetchFilter filter) {
+    private static Specification<Item> getCursorSpecification(final ItemCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            final boolean ascending = cursor.direction().isAscending();
+            final Path<Long> id = root.get(ItemSortField.ID.getProperty());
+            if (cursor.sortField() == ItemSortField.ID) {
+                return after(criteriaBuilder, id, cursor.id(), ascending);
+            }
+            // (key > value) or (key = value and id > lastId), reversed for descending order
+            final Path<Comparable<?>> key = root.get(cursor.sortField().getProperty());
+            return criteriaBuilder.or(
+                    after(criteriaBuilder, key, cursor.value(), ascending),
+                    criteriaBuilder.and(criteriaBuilder.equal(key, cursor.value()), after(criteriaBuilder, id, cursor.id(), ascending)));
+        };
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Predicate after(final CriteriaBuilder criteriaBuilder, final Expression path, final Comparable value, final boolean ascending) {
+        return ascending ? criteriaBuilder.greaterThan(path, value) : criteriaBuilder.lessThan(path, value);
+    }
+
+    static Specification<Item> getItemSpecification(final ItemFetchFilter filter) {
         return (root, query, criteriaBuilder) -> {
             List<Predicate> filters = new ArrayList<>();
             if (filter.name() != null) {
@@ -68,23 +264,171 @@ class ItemCatalogApiImpl implements ItemCatalogApi {
     }
 
     @Override
+    @Transactional
     public ItemDto createItem(@Valid final SaveItemCommand saveItemCommand) {
         Item newItem = itemMapper.fromCreateCommand(saveItemCommand, UUID.randomUUID());
         newItem = itemRepository.save(newItem);
-        return itemMapper.toDto(newItem);
+        final ItemDto createdItem = itemMapper.toDto(newItem);
+        eventPublisher.publishEvent(ItemChangedEvent.created(newItem.getId(), createdItem));
+        return createdItem;
+    }
+
+    @Override
+    @Transactional
+    public List<ItemDto> createItems(@Valid final CreateItemsCommand createItemsCommand) {
+        final List<Item> newItems = createItemsCommand.items().stream()
+                .map(saveItemCommand -> itemMapper.fromCreateCommand(saveItemCommand, UUID.randomUUID()))
+                .toList();
+        itemRepository.persistAll(newItems);
+        final List<ItemDto> createdItems = newItems.stream().map(itemMapper::toDto).toList();
+        final List<ItemChangedEvent> changes = new ArrayList<>(newItems.size());
+        for (int i = 0; i < newItems.size(); i++) {
+            changes.add(ItemChangedEvent.created(newItems.get(i).getId(), createdItems.get(i)));
+        }
+        eventPublisher.publishEvent(new ItemChangeBatchEvent(changes));
+        return createdItems;
+    }
+
+    @Override
+    public ItemImportSummaryDto importItems(final Reader reader, final ItemFileFormat format) {
+        return itemImporter.importItems(reader, format);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportItems(final ItemFetchFilter filter, final ItemFileFormat format, final OutputStream outputStream) {
+        // id order follows primary key, database does not need to sort the whole result before first row is sent
+        final Sort sort = Sort.by(ItemSortField.ID.getProperty());
+        try (Stream<Item> items = itemRepository.streamAll(getItemSpecification(filter), sort)) {
+            return itemExporter.export(items.map(itemMapper::toDto), format, outputStream);
+        }
     }
 
     @Override
     @Transactional
     public void deleteItem(final UUID itemUuid) {
-        itemRepository.deleteItemByUuid(itemUuid);
+        itemRepository.deleteItemByUuid(itemUuid)
+                .forEach(item -> eventPublisher.publishEvent(ItemChangedEvent.deleted(item.getId(), itemMapper.toDto(item))));
     }
 
     @Override
+    @Transactional
     public ItemDto updateItem(@Valid @NotNull final UUID itemUuid, @Valid final SaveItemCommand updatedItem) {
         Item item = itemRepository.findItemByUuid(itemUuid).orElseThrow(ItemNotFoundException::new);
+        final ItemDto itemBefore = itemMapper.toDto(item);
         itemMapper.updateItem(updatedItem, item);
         item = itemRepository.save(item);
-        return itemMapper.toDto(item);
+        final ItemDto itemAfter = itemMapper.toDto(item);
+        eventPublisher.publishEvent(ItemChangedEvent.updated(item.getId(), itemBefore, itemAfter));
+        return itemAfter;
+    }
+
+    @Override
+    @Transactional
+    public ItemDto updateItem(@Valid @NotNull final UUID itemUuid, @Valid final SaveItemCommand updatedItem,
+                              @NotEmpty final Collection<Integer> expectedVersions) {
+        final int updated = itemRepository.updateIfVersion(itemUuid, expectedVersions,
+                updatedItem.name(), updatedItem.description(), updatedItem.price(), Instant.now());
+        if (updated == 0) {
+            throw new ItemVersionMismatchException();
+        }
+        // state before the write is not read, so listeners are told only which item changed
+        eventPublisher.publishEvent(ItemsChangedEvent.local(List.of(itemUuid)));
+        return itemRepository.findItemByUuid(itemUuid, ItemDto.class).orElseThrow(ItemNotFoundException::new);
+    }
+
+    @Override
+    @Transactional
+    public void deleteItem(final UUID itemUuid, @NotEmpty final Collection<Integer> expectedVersions) {
+        if (itemRepository.deleteIfVersion(itemUuid, expectedVersions) == 0) {
+            throw new ItemVersionMismatchException();
+        }
+        eventPublisher.publishEvent(ItemsChangedEvent.local(List.of(itemUuid)));
+    }
+
+    @Override
+    public String getCatalogVersion() {
+        return changeLog.epoch() + CATALOG_VERSION_SEPARATOR + changeLog.currentGeneration();
+    }
+
+    @Override
+    public boolean isCatalogUnchangedSince(final String catalogVersion, final ItemFetchFilter filter) {
+        final int separator = catalogVersion.lastIndexOf(CATALOG_VERSION_SEPARATOR);
+        if (separator < 0 || !catalogVersion.substring(0, separator).equals(changeLog.epoch().toString())) {
+            return false;
+        }
+        try {
+            final long generation = Long.parseLong(catalogVersion.substring(separator + 1));
+            return changeLog.isUnaffectedSince(generation, ItemFilterMatcher.of(filter.normalized()));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @Override
+    @Transactional
+    public long deleteItems(@Valid @NotNull final BulkDeleteItemsCommand command) {
+        return forEachChunk(getSelectionSpecification(command.uuids(), command.filter()), items -> {
+            itemRepository.deleteByIds(items.stream().map(Item::getId).toList());
+            eventPublisher.publishEvent(new ItemChangeBatchEvent(items.stream()
+                    .map(item -> ItemChangedEvent.deleted(item.getId(), itemMapper.toDto(item)))
+                    .toList()));
+        });
+    }
+
+    @Override
+    @Transactional
+    public long updatePrices(@Valid @NotNull final BulkUpdatePriceCommand command) {
+        final Instant modifiedAt = Instant.now();
+        return forEachChunk(getSelectionSpecification(command.uuids(), command.filter()), items -> {
+            final List<Long> ids = items.stream().map(Item::getId).toList();
+            final Map<Long, ItemDto> itemsBefore = items.stream().collect(Collectors.toMap(Item::getId, itemMapper::toDto));
+            if (command.price() != null) {
+                itemRepository.setPrice(ids, command.price(), modifiedAt);
+            } else if (command.priceChange() != null) {
+                itemRepository.changePrice(ids, command.priceChange(), MAX_PRICE, modifiedAt);
+            } else {
+                itemRepository.scalePrice(ids, BigDecimal.ONE.add(command.priceChangePercent().divide(ONE_HUNDRED)), MAX_PRICE, modifiedAt);
+            }
+            // state after update is read back, so caches get exactly what is in the database
+            eventPublisher.publishEvent(new ItemChangeBatchEvent(itemRepository.findAllById(ids).stream()
+                    .map(item -> ItemChangedEvent.updated(item.getId(), itemsBefore.get(item.getId()), itemMapper.toDto(item)))
+                    .toList()));
+        });
+    }
+
+    /**
+     * Walks matching items in id order, chunk by chunk, so every statement touches at most {@link #BULK_CHUNK_SIZE} rows
+     * and only one chunk is held in memory. Items are read before they are changed, so the one event published
+     * per chunk can tell exactly which items changed and how.
+     */
+    private long forEachChunk(final Specification<Item> specification, final Consumer<List<Item>> action) {
+        final Sort idOrder = Sort.by(ItemSortField.ID.getProperty());
+        long affected = 0;
+        Long lastId = null;
+        while (true) {
+            final Specification<Item> chunkSpecification = lastId == null ? specification : specification.and(idGreaterThan(lastId));
+            final List<Item> items = itemRepository.findBy(chunkSpecification, query -> query.sortBy(idOrder).limit(BULK_CHUNK_SIZE).all());
+            if (items.isEmpty()) {
+                return affected;
+            }
+            lastId = items.getLast().getId();
+            action.accept(items);
+            affected += items.size();
+            if (items.size() < BULK_CHUNK_SIZE) {
+                return affected;
+            }
+        }
+    }
+
+    private static Specification<Item> getSelectionSpecification(final List<UUID> uuids, final ItemFetchFilter filter) {
+        if (uuids != null) {
+            return (root, query, criteriaBuilder) -> root.get(Item_.uuid).in(uuids);
+        }
+        return getItemSpecification(filter);
+    }
+
+    private static Specification<Item> idGreaterThan(final long id) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.greaterThan(root.<Long>get(ItemSortField.ID.getProperty()), id);
     }
 }
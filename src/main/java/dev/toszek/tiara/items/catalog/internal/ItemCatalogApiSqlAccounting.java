@@ -0,0 +1,38 @@
+package dev.toszek.tiara.items.catalog.internal;
+
+import dev.toszek.tiara.shared.sql.SqlStatementListener;
+import dev.toszek.tiara.shared.sql.SqlStatementSource;
+import dev.toszek.tiara.shared.sql.SqlStatementTracker;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Counts statements of every {@link dev.toszek.tiara.items.catalog.ItemCatalogApi} call. Runs outside the transaction,
+ * so statements flushed on commit and issued by after-commit listeners count as well.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+class ItemCatalogApiSqlAccounting {
+    private final List<SqlStatementListener> listeners;
+
+    @Around("execution(* dev.toszek.tiara.items.catalog.ItemCatalogApi.*(..))")
+    public Object account(final ProceedingJoinPoint joinPoint) throws Throwable {
+        final SqlStatementTracker.Scope scope = SqlStatementTracker.open();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            scope.close();
+            final String method = joinPoint.getSignature().getName();
+            listeners.forEach(listener -> listener.completed(SqlStatementSource.API_CALL, method, scope.stats()));
+        }
+    }
+}
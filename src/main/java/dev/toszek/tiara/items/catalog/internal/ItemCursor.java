@@ -0,0 +1,49 @@
+package dev.toszek.tiara.items.catalog.internal;
+
+import dev.toszek.tiara.items.catalog.exception.InvalidCursorException;
+import dev.toszek.tiara.items.catalog.internal.entity.Item;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last item returned by keyset pagination. Encoded as opaque url safe string:
+ * sort field, direction, item id and sort key value of the last item on the page.
+ */
+record ItemCursor(ItemSortField sortField, Sort.Direction direction, long id, Comparable<?> value) {
+    private static final String SEPARATOR = "|";
+
+    static ItemCursor after(final Item item, final ItemSortField sortField, final Sort.Direction direction) {
+        return new ItemCursor(sortField, direction, item.getId(), sortField.valueOf(item));
+    }
+
+    String encode() {
+        final String raw = String.join(SEPARATOR, sortField.name(), direction.name(), Long.toString(id), sortField.formatValue(value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ItemCursor decode(final String cursor) {
+        try {
+            final String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // value is last, so it may contain separator itself
+            final String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+            final ItemSortField sortField = ItemSortField.valueOf(parts[0]);
+            return new ItemCursor(sortField, Sort.Direction.valueOf(parts[1]), Long.parseLong(parts[2]), sortField.parseValue(parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    /**
+     * Sort key followed by id, so order is total and cursor position is unambiguous.
+     */
+    static Sort keysetSort(final ItemSortField sortField, final Sort.Direction direction) {
+        final Sort idSort = Sort.by(direction, ItemSortField.ID.getProperty());
+        return sortField == ItemSortField.ID ? idSort : Sort.by(direction, sortField.getProperty()).and(idSort);
+    }
+}
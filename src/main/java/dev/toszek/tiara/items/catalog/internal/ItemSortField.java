@@ -0,0 +1,84 @@
+package dev.toszek.tiara.items.catalog.internal;
+
+import dev.toszek.tiara.items.catalog.exception.InvalidSortException;
+import dev.toszek.tiara.items.catalog.internal.entity.Item;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Item properties that listings can be ordered by. Each of them can also serve as keyset (cursor) sort key,
+ * with item id used as tie-breaker. Every field other than id has a ({@code column}, id) index,
+ * so ordered page can be read from the index instead of sorting all matching rows.
+ */
+public enum ItemSortField {
+    ID("id", Item::getId, Long::valueOf),
+    NAME("name", Item::getName, Function.identity()),
+    PRICE("price", Item::getPrice, BigDecimal::new),
+    CREATION_DATE("creationDate", Item::getCreationDate, Instant::parse);
+
+    private static final List<String> PROPERTIES = Arrays.stream(values()).map(ItemSortField::getProperty).toList();
+
+    private final String property;
+    private final Function<Item, Comparable<?>> valueExtractor;
+    private final Function<String, Comparable<?>> valueParser;
+
+    ItemSortField(final String property, final Function<Item, Comparable<?>> valueExtractor, final Function<String, Comparable<?>> valueParser) {
+        this.property = property;
+        this.valueExtractor = valueExtractor;
+        this.valueParser = valueParser;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    Comparable<?> valueOf(final Item item) {
+        return valueExtractor.apply(item);
+    }
+
+    Comparable<?> parseValue(final String value) {
+        return valueParser.apply(value);
+    }
+
+    String formatValue(final Comparable<?> value) {
+        return value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+    }
+
+    /**
+     * Sort by at most one whitelisted field, with id as tie-breaker in the same direction, so it matches column order
+     * of an index. Unsorted means by id.
+     *
+     * @throws InvalidSortException when sort uses other properties, more of them or ignores case
+     */
+    static Sort indexedSort(final Sort sort) {
+        final List<Sort.Order> orders = sort.stream()
+                .filter(order -> !order.getProperty().equals(ID.property))
+                .toList();
+        if (orders.size() > 1) {
+            throw new InvalidSortException("Listing can be sorted by one property only, besides id");
+        }
+        if (orders.isEmpty()) {
+            final Sort.Order byId = sort.getOrderFor(ID.property);
+            return Sort.by(byId != null ? byId.getDirection() : Sort.Direction.ASC, ID.property);
+        }
+        final Sort.Order order = orders.get(0);
+        if (fromProperty(order.getProperty()).isEmpty() || order.isIgnoreCase()) {
+            throw new InvalidSortException("Unsupported sort property: " + order.getProperty()
+                    + (order.isIgnoreCase() ? " (ignoring case)" : "") + ", supported are " + PROPERTIES);
+        }
+        return Sort.by(Sort.Order.by(order.getProperty()).with(order.getDirection()),
+                Sort.Order.by(ID.property).with(order.getDirection()));
+    }
+
+    public static Optional<ItemSortField> fromProperty(final String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst();
+    }
+}
@@ -0,0 +1,200 @@
+package dev.toszek.tiara.items.catalog.internal.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangeBatchEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemsChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Items by uuid. Concurrent misses for the same uuid are coalesced into one database query, all callers get its result.
+ * Entries read after refresh-after-write are reloaded in background while the old value is still served,
+ * so hot items do not expire under load. Misses of a multi-get are loaded together with one query.
+ * <p>
+ * Unknown uuids are remembered in separate, short living cache, so repeated lookups of missing items
+ * do not reach the database. Missing entry is stored only if no item was created or changed while it was loaded,
+ * and it is dropped as soon as item with that uuid is created, so it never hides a new item.
+ */
+@Component
+public class ItemByIdCache {
+    private final ItemRepository itemRepository;
+    private final LoadingCache<UUID, ItemDto> cache;
+    private final Cache<UUID, Boolean> missing;
+    private final AtomicLong changes = new AtomicLong();
+
+    @Autowired
+    public ItemByIdCache(final ItemRepository itemRepository,
+                         final CacheManager cacheManager,
+                         @Qualifier("applicationTaskExecutor") final Executor refreshExecutor,
+                         @Value("${app.cache.items-by-id.maximum-size:10000}") final long maximumSize,
+                         @Value("${app.cache.items-by-id.expire-after-write:PT10M}") final Duration expireAfterWrite,
+                         @Value("${app.cache.items-by-id.refresh-after-write:PT5M}") final Duration refreshAfterWrite,
+                         @Value("${app.cache.items-by-id.missing.maximum-size:10000}") final long missingMaximumSize,
+                         @Value("${app.cache.items-by-id.missing.expire-after-write:PT1M}") final Duration missingExpireAfterWrite) {
+        this(itemRepository, cacheManager, refreshExecutor, maximumSize, expireAfterWrite, refreshAfterWrite,
+                missingMaximumSize, missingExpireAfterWrite, Ticker.systemTicker());
+    }
+
+    ItemByIdCache(final ItemRepository itemRepository,
+                  final CacheManager cacheManager,
+                  final Executor refreshExecutor,
+                  final long maximumSize,
+                  final Duration expireAfterWrite,
+                  final Duration refreshAfterWrite,
+                  final long missingMaximumSize,
+                  final Duration missingExpireAfterWrite,
+                  final Ticker ticker) {
+        this.itemRepository = itemRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .executor(refreshExecutor)
+                .ticker(ticker)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public ItemDto load(final UUID uuid) {
+                        return ItemByIdCache.this.load(uuid);
+                    }
+
+                    @Override
+                    public Map<UUID, ItemDto> loadAll(final Set<? extends UUID> uuids) {
+                        return ItemByIdCache.this.loadAll(uuids);
+                    }
+                });
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(missingMaximumSize)
+                .expireAfterWrite(missingExpireAfterWrite)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        if (cacheManager instanceof CaffeineCacheManager caffeineCacheManager) {
+            // visible through spring cache abstraction as well, e.g. for clearing and cache metrics
+            caffeineCacheManager.registerCustomCache(ItemCacheNames.ITEMS_BY_ID, asObjectCache(cache));
+            caffeineCacheManager.registerCustomCache(ItemCacheNames.MISSING_ITEMS_BY_ID, asObjectCache(missing));
+        }
+    }
+
+    private ItemDto load(final UUID uuid) {
+        final long changesBefore = changes.get();
+        final ItemDto item = itemRepository.findItemByUuid(uuid, ItemDto.class).orElse(null);
+        if (item == null) {
+            rememberMissing(uuid, changesBefore);
+        }
+        return item;
+    }
+
+    private Map<UUID, ItemDto> loadAll(final Set<? extends UUID> uuids) {
+        final long changesBefore = changes.get();
+        final Map<UUID, ItemDto> items = HashMap.newHashMap(uuids.size());
+        for (ItemDto item : itemRepository.findByUuidIn(Collections.unmodifiableSet(uuids), ItemDto.class)) {
+            items.put(item.uuid(), item);
+        }
+        for (UUID uuid : uuids) {
+            if (!items.containsKey(uuid)) {
+                rememberMissing(uuid, changesBefore);
+            }
+        }
+        return items;
+    }
+
+    private void rememberMissing(final UUID uuid, final long changesBefore) {
+        // null result is not stored by caffeine, remember it separately unless item could be created meanwhile
+        missing.asMap().compute(uuid, (key, current) -> changes.get() == changesBefore ? Boolean.TRUE : current);
+    }
+
+    public ItemDto get(final UUID uuid) {
+        if (missing.getIfPresent(uuid) != null) {
+            return null;
+        }
+        return cache.get(uuid);
+    }
+
+    /**
+     * Found items by uuid, uuids of missing items are not in the result. Cached entries are served as they are,
+     * all other uuids are loaded with one query and cached together.
+     */
+    public Map<UUID, ItemDto> getAll(final Collection<UUID> uuids) {
+        final Map<UUID, Boolean> knownMissing = missing.getAllPresent(uuids);
+        if (knownMissing.isEmpty()) {
+            return cache.getAll(uuids);
+        }
+        final List<UUID> candidates = new ArrayList<>(uuids.size());
+        for (UUID uuid : uuids) {
+            if (!knownMissing.containsKey(uuid)) {
+                candidates.add(uuid);
+            }
+        }
+        return cache.getAll(candidates);
+    }
+
+    /**
+     * Writes through committed changes, so the next read does not need to go to the database.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(final ItemChangedEvent event) {
+        // counted before touching missing entries, see load
+        changes.incrementAndGet();
+        missing.invalidate(event.uuid());
+        if (event.after() != null) {
+            cache.put(event.uuid(), event.after());
+        } else {
+            cache.invalidate(event.uuid());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChangeBatch(final ItemChangeBatchEvent event) {
+        changes.incrementAndGet();
+        final List<UUID> uuids = event.uuids();
+        missing.invalidateAll(uuids);
+        final Map<UUID, ItemDto> changed = HashMap.newHashMap(uuids.size());
+        final List<UUID> deleted = new ArrayList<>();
+        for (ItemChangedEvent change : event.changes()) {
+            if (change.after() != null) {
+                changed.put(change.uuid(), change.after());
+            } else {
+                deleted.add(change.uuid());
+            }
+        }
+        cache.putAll(changed);
+        cache.invalidateAll(deleted);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsChanged(final ItemsChangedEvent event) {
+        changes.incrementAndGet();
+        missing.invalidateAll(event.uuids());
+        cache.invalidateAll(event.uuids());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Cache<Object, Object> asObjectCache(final Cache cache) {
+        return cache;
+    }
+}
@@ -0,0 +1,201 @@
+package dev.toszek.tiara.items.catalog.internal.cache;
+
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangeBatchEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemsChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps caches of several service instances coherent using only the shared database. Every committed item change
+ * is appended to item_cache_invalidation table, every instance tails that table and evicts items changed by others.
+ * Remote changes become visible within one poll interval.
+ * <p>
+ * Rows are written in the transaction of the change, with one batch just before it commits, so a committed change
+ * always has its rows and no second connection is needed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "app.cache.coherence.enabled", havingValue = "true", matchIfMissing = true)
+public class ItemCacheInvalidationLog {
+    private static final String INSERT_SQL = "INSERT INTO item_cache_invalidation (origin, item_uuid, created_at) VALUES (?, ?, CURRENT_TIMESTAMP)";
+    private static final String POLL_SQL = "SELECT id, origin, item_uuid FROM item_cache_invalidation WHERE id > ? ORDER BY id";
+    private static final String PURGE_SQL = "DELETE FROM item_cache_invalidation WHERE created_at < ?";
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration retention;
+    private final Duration gapTimeout;
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong rowsRead = new AtomicLong();
+    // not a monitor, poll blocks on JDBC and a virtual thread holding a monitor would pin its carrier thread
+    private final ReentrantLock pollLock = new ReentrantLock();
+
+    // all rows with id <= watermark were processed, ids above it that were already processed are kept in seenAbove
+    private long watermark;
+    private final TreeSet<Long> seenAbove = new TreeSet<>();
+    private long gapDetectedAt;
+
+    public ItemCacheInvalidationLog(final JdbcTemplate jdbcTemplate,
+                                    final ApplicationEventPublisher eventPublisher,
+                                    @Value("${app.cache.coherence.retention:PT1H}") final Duration retention,
+                                    @Value("${app.cache.coherence.gap-timeout:PT10S}") final Duration gapTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.retention = retention;
+        this.gapTimeout = gapTimeout;
+    }
+
+    @PostConstruct
+    void startFromLatest() {
+        // caches are empty on startup, so older entries are of no interest
+        final Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM item_cache_invalidation", Long.class);
+        watermark = maxId == null ? 0 : maxId;
+    }
+
+    @EventListener
+    public void onItemChanged(final ItemChangedEvent event) {
+        append(List.of(event.uuid()));
+    }
+
+    @EventListener
+    public void onItemChangeBatch(final ItemChangeBatchEvent event) {
+        append(event.uuids());
+    }
+
+    @EventListener
+    public void onItemsChanged(final ItemsChangedEvent event) {
+        if (!event.remote()) {
+            append(event.uuids());
+        }
+    }
+
+    private void append(final Collection<UUID> uuids) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(uuids);
+            return;
+        }
+        // collected for the whole transaction, written with one batch before it commits, synchronizations
+        // are suspended together with their transaction, so an inner one gets its own
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingInvalidations pending && pending.owner() == this) {
+                pending.uuids.addAll(uuids);
+                return;
+            }
+        }
+        final PendingInvalidations pending = new PendingInvalidations();
+        pending.uuids.addAll(uuids);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    private void insert(final Collection<UUID> uuids) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, uuids, 500, (statement, uuid) -> {
+            statement.setString(1, instanceId);
+            statement.setObject(2, uuid);
+        });
+    }
+
+    private final class PendingInvalidations implements TransactionSynchronization {
+        private final Set<UUID> uuids = new LinkedHashSet<>();
+
+        private ItemCacheInvalidationLog owner() {
+            return ItemCacheInvalidationLog.this;
+        }
+
+        @Override
+        public void beforeCommit(final boolean readOnly) {
+            insert(uuids);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.coherence.poll-interval-ms:1000}")
+    public void poll() {
+        pollLock.lock();
+        try {
+            pollUnderLock();
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    private void pollUnderLock() {
+        polls.incrementAndGet();
+        final Set<UUID> changedRemotely = new HashSet<>();
+        final List<Long> newIds = new ArrayList<>();
+        jdbcTemplate.query(POLL_SQL, resultSet -> {
+            rowsRead.incrementAndGet();
+            final long id = resultSet.getLong("id");
+            if (seenAbove.contains(id)) {
+                return;
+            }
+            newIds.add(id);
+            if (!instanceId.equals(resultSet.getString("origin"))) {
+                changedRemotely.add(resultSet.getObject("item_uuid", UUID.class));
+            }
+        }, watermark);
+
+        seenAbove.addAll(newIds);
+        advanceWatermark();
+        if (!changedRemotely.isEmpty()) {
+            log.debug("Evicting {} items changed by other instances", changedRemotely.size());
+            eventPublisher.publishEvent(ItemsChangedEvent.remote(changedRemotely));
+        }
+    }
+
+    private void advanceWatermark() {
+        while (!seenAbove.isEmpty() && seenAbove.first() == watermark + 1) {
+            watermark = seenAbove.pollFirst();
+        }
+        if (seenAbove.isEmpty()) {
+            gapDetectedAt = 0;
+            return;
+        }
+        // ids are assigned before commit, so a lower id can become visible after a higher one, wait for it a while
+        final long now = System.nanoTime();
+        if (gapDetectedAt == 0) {
+            gapDetectedAt = now;
+        } else if (now - gapDetectedAt > gapTimeout.toNanos()) {
+            watermark = seenAbove.first() - 1;
+            gapDetectedAt = 0;
+            advanceWatermark();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.coherence.purge-interval-ms:60000}")
+    public void purge() {
+        jdbcTemplate.update(PURGE_SQL, Timestamp.from(Instant.now().minus(retention)));
+    }
+
+    public long getPollCount() {
+        return polls.get();
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+}
@@ -0,0 +1,11 @@
+package dev.toszek.tiara.items.catalog.internal.cache;
+
+public final class ItemCacheNames {
+    public static final String ITEMS_BY_ID = "itemsById";
+    public static final String MISSING_ITEMS_BY_ID = "missingItemsById";
+    public static final String ITEM_COUNTS = "itemCounts";
+    public static final String ITEM_QUERIES = "itemQueries";
+
+    private ItemCacheNames() {
+    }
+}
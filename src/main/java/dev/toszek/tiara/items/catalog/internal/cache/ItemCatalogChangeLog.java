@@ -0,0 +1,108 @@
+package dev.toszek.tiara.items.catalog.internal.cache;
+
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangeBatchEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemsChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.filter.ItemFilterMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Catalog generation counter with a bounded log of the most recent changes. Cached query results remember
+ * generation they were loaded at, and stay valid as long as none of the changes made since then could match their filter.
+ * Changes are recorded after commit, so generation must be read before query result is loaded.
+ */
+@Component
+public class ItemCatalogChangeLog {
+    static final int DEFAULT_CAPACITY = 1024;
+
+    private final UUID epoch = UUID.randomUUID();
+    private final int capacity;
+    private final AtomicReferenceArray<Change> changes;
+    private volatile long generation;
+
+    public ItemCatalogChangeLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    ItemCatalogChangeLog(final int capacity) {
+        this.capacity = capacity;
+        this.changes = new AtomicReferenceArray<>(capacity);
+    }
+
+    public long currentGeneration() {
+        return generation;
+    }
+
+    /**
+     * Identifies this log instance, generations of different instances (other service instance, restart) are not comparable.
+     */
+    public UUID epoch() {
+        return epoch;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(final ItemChangedEvent event) {
+        record(event.before(), event.after(), false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChangeBatch(final ItemChangeBatchEvent event) {
+        if (event.changes().size() >= capacity) {
+            // would overwrite the whole log anyway
+            recordUnknownChange();
+            return;
+        }
+        event.changes().forEach(this::onItemChanged);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsChanged(final ItemsChangedEvent event) {
+        recordUnknownChange();
+    }
+
+    /**
+     * Records change which can not be attributed to particular item values, it invalidates every cached result.
+     */
+    public void recordUnknownChange() {
+        record(null, null, true);
+    }
+
+    /**
+     * @return true if no change recorded after {@code sinceGeneration} could affect result of query with given filter
+     */
+    public boolean isUnaffectedSince(final long sinceGeneration, final ItemFilterMatcher matcher) {
+        final long current = generation;
+        if (sinceGeneration > current || current - sinceGeneration > capacity) {
+            // generation not issued yet, or log does not reach back that far anymore
+            return false;
+        }
+        for (long changeGeneration = sinceGeneration + 1; changeGeneration <= current; changeGeneration++) {
+            final Change change = changes.get(slot(changeGeneration));
+            if (change == null || change.generation() != changeGeneration || change.affects(matcher)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized void record(final ItemDto before, final ItemDto after, final boolean affectsAll) {
+        final long next = generation + 1;
+        changes.set(slot(next), new Change(next, before, after, affectsAll));
+        generation = next;
+    }
+
+    private int slot(final long changeGeneration) {
+        return (int) (changeGeneration % capacity);
+    }
+
+    private record Change(long generation, ItemDto before, ItemDto after, boolean affectsAll) {
+        boolean affects(final ItemFilterMatcher matcher) {
+            return affectsAll || matcher.matches(before) || matcher.matches(after);
+        }
+    }
+}
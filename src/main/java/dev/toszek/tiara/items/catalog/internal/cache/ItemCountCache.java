@@ -0,0 +1,47 @@
+package dev.toszek.tiara.items.catalog.internal.cache;
+
+import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.internal.filter.ItemFilterMatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Caches total number of items matching given filter, so paged listing does not need to run count query
+ * on every request. Entry stays valid until a change that could match its filter is recorded in {@link ItemCatalogChangeLog}.
+ */
+@Component
+public class ItemCountCache {
+    private final Cache cache;
+    private final ItemCatalogChangeLog changeLog;
+    private final boolean enabled;
+
+    public ItemCountCache(final CacheManager cacheManager,
+                          final ItemCatalogChangeLog changeLog,
+                          @Value("${app.catalog.count-cache.enabled:true}") final boolean enabled) {
+        this.cache = cacheManager.getCache(ItemCacheNames.ITEM_COUNTS);
+        this.changeLog = changeLog;
+        this.enabled = enabled;
+    }
+
+    public long count(final ItemFetchFilter filter, final LongSupplier counter) {
+        if (!enabled) {
+            return counter.getAsLong();
+        }
+        final ItemFetchFilter key = filter.normalized();
+        final CachedCount cached = cache.get(key, CachedCount.class);
+        if (cached != null && changeLog.isUnaffectedSince(cached.generation(), cached.matcher())) {
+            return cached.count();
+        }
+        final long generation = changeLog.currentGeneration();
+        final long count = counter.getAsLong();
+        cache.put(key, new CachedCount(generation, cached != null ? cached.matcher() : ItemFilterMatcher.of(key), count));
+        return count;
+    }
+
+    private record CachedCount(long generation, ItemFilterMatcher matcher, long count) {
+    }
+}
@@ -0,0 +1,58 @@
+package dev.toszek.tiara.items.catalog.internal.cache;
+
+import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.internal.filter.ItemFilterMatcher;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Caches filtered listing pages. Entries are not evicted by writes, instead every lookup checks in
+ * {@link ItemCatalogChangeLog} whether any change made since the entry was loaded could match its filter.
+ */
+@Component
+public class ItemQueryCache {
+    private final Cache cache;
+    private final ItemCatalogChangeLog changeLog;
+
+    public ItemQueryCache(final CacheManager cacheManager, final ItemCatalogChangeLog changeLog) {
+        this.cache = cacheManager.getCache(ItemCacheNames.ITEM_QUERIES);
+        this.changeLog = changeLog;
+    }
+
+    public Page<ItemDto> get(final ItemFetchFilter filter, final Pageable pageable, final Supplier<Page<ItemDto>> loader) {
+        final ItemFetchFilter normalizedFilter = filter.normalized();
+        final QueryKey key = pageable.isPaged()
+                ? new QueryKey(normalizedFilter, pageable.getOffset(), pageable.getPageSize(), pageable.getSort())
+                : new QueryKey(normalizedFilter, -1, -1, pageable.getSort());
+
+        final CachedPage cached = cache.get(key, CachedPage.class);
+        if (cached != null) {
+            final long current = changeLog.currentGeneration();
+            if (changeLog.isUnaffectedSince(cached.generation(), cached.matcher())) {
+                if (cached.generation() != current) {
+                    // move entry forward, so next lookup does not need to check the same changes again
+                    cache.put(key, new CachedPage(current, cached.matcher(), cached.page()));
+                }
+                return cached.page();
+            }
+        }
+
+        final long generation = changeLog.currentGeneration();
+        final Page<ItemDto> page = loader.get();
+        cache.put(key, new CachedPage(generation, cached != null ? cached.matcher() : ItemFilterMatcher.of(normalizedFilter), page));
+        return page;
+    }
+
+    private record QueryKey(ItemFetchFilter filter, long offset, int size, Sort sort) {
+    }
+
+    private record CachedPage(long generation, ItemFilterMatcher matcher, Page<ItemDto> page) {
+    }
+}
@@ -0,0 +1,586 @@
+package dev.toszek.tiara.items.catalog.internal.columnar;
+
+import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.internal.ItemSortField;
+import dev.toszek.tiara.items.catalog.internal.filter.ItemFilterMatcher;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Whole catalog in memory, one primitive array per column, so a listing is answered without the database
+ * and without an object per item. Row of an item is a slot, the same index in every column array.
+ * <ul>
+ *     <li>prices are longs scaled by 100 (price column is decimal(8,2)), kept in sorted index for range lookups,
+ *     changes go to a small unsorted delta first, which is merged into the index once it grows</li>
+ *     <li>names and descriptions are UTF-8 in one shared byte array, replaced texts are garbage until compaction,
+ *     when live texts do not fit in the largest array the store gives up, clears itself and is never ready again,
+ *     so listings go to the database</li>
+ *     <li>dates are epoch nanoseconds, uuids two longs</li>
+ * </ul>
+ * Store is filled by {@link ItemColumnStoreUpdater} and answers queries only after its initial load is finished.
+ */
+@Slf4j
+@Component
+public class ItemColumnStore implements MeterBinder {
+    private static final int PRICE_SCALE = 2;
+    // prices are packed together with slot into one long for the index, shifted to be non-negative,
+    // decimal(8,2) needs 27 bits, so the packed value never reaches the sign bit
+    private static final long PRICE_OFFSET = 1L << 30;
+    private static final long MIN_INDEXED_PRICE = -PRICE_OFFSET;
+    private static final long MAX_INDEXED_PRICE = PRICE_OFFSET - 1;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int MIN_DELTA_MERGE = 1024;
+    private static final int MIN_TEXT_COMPACTION = 1 << 20;
+    private static final int INITIAL_CAPACITY = 1024;
+    // largest array length every JVM can allocate
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int maxTextBytes;
+    private volatile boolean ready;
+    private boolean full;
+    private final Set<UUID> removedWhileLoading = new HashSet<>();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] uuidMostBits = new long[INITIAL_CAPACITY];
+    private long[] uuidLeastBits = new long[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private long[] creationDates = new long[INITIAL_CAPACITY];
+    private long[] lastModifiedDates = new long[INITIAL_CAPACITY];
+    private int[] versions = new int[INITIAL_CAPACITY];
+    private int[] nameOffsets = new int[INITIAL_CAPACITY];
+    private int[] nameLengths = new int[INITIAL_CAPACITY];
+    private int[] descriptionOffsets = new int[INITIAL_CAPACITY];
+    private int[] descriptionLengths = new int[INITIAL_CAPACITY];
+    private final BitSet live = new BitSet();
+    private final UuidSlotMap slotsByUuid = new UuidSlotMap(INITIAL_CAPACITY);
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+
+    private byte[] text;
+    private int textSize;
+    private long garbageTextBytes;
+
+    private long[] priceIndex = new long[0];
+    private int[] priceDelta = new int[MIN_DELTA_MERGE];
+    private int priceDeltaSize;
+    private final BitSet inPriceDelta = new BitSet();
+
+    public ItemColumnStore() {
+        this(MAX_ARRAY_LENGTH);
+    }
+
+    ItemColumnStore(final int maxTextBytes) {
+        this.maxTextBytes = maxTextBytes;
+        this.text = new byte[Math.min(INITIAL_CAPACITY * 64, maxTextBytes)];
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ends initial load, items removed while it was running are not added back by rows read before their removal.
+     */
+    public void markReady() {
+        lock.writeLock().lock();
+        try {
+            removedWhileLoading.clear();
+            if (full) {
+                return;
+            }
+            mergePriceDelta();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds item or replaces its state, older version than the stored one is ignored.
+     */
+    public void upsert(final long id, final ItemDto item) {
+        lock.writeLock().lock();
+        try {
+            if (full || !ready && removedWhileLoading.contains(item.uuid())) {
+                return;
+            }
+            int slot = slotsByUuid.get(item.uuid());
+            if (slot != UuidSlotMap.MISSING && versions[slot] > item.version()) {
+                return;
+            }
+            final byte[] name = item.name().getBytes(StandardCharsets.UTF_8);
+            final byte[] description = item.description().getBytes(StandardCharsets.UTF_8);
+            if (slot != UuidSlotMap.MISSING) {
+                garbageTextBytes += nameLengths[slot] + descriptionLengths[slot];
+                // replaced text is garbage already, compaction making room for the new one must skip it
+                live.clear(slot);
+            }
+            if (!ensureTextCapacity(name.length + description.length)) {
+                giveUp();
+                return;
+            }
+            if (slot == UuidSlotMap.MISSING) {
+                slot = allocateSlot();
+                slotsByUuid.put(item.uuid(), slot);
+            }
+            ids[slot] = id;
+            uuidMostBits[slot] = item.uuid().getMostSignificantBits();
+            uuidLeastBits[slot] = item.uuid().getLeastSignificantBits();
+            // rounded as the database rounds it when price comes from the write path with more decimals
+            prices[slot] = item.price().setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            creationDates[slot] = toNanos(item.creationDate());
+            lastModifiedDates[slot] = toNanos(item.lastModifiedDate());
+            versions[slot] = item.version();
+            nameOffsets[slot] = appendText(name);
+            nameLengths[slot] = name.length;
+            descriptionOffsets[slot] = appendText(description);
+            descriptionLengths[slot] = description.length;
+            live.set(slot);
+            addToPriceDelta(slot);
+            compactTextIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(final UUID uuid) {
+        lock.writeLock().lock();
+        try {
+            if (full) {
+                return;
+            }
+            if (!ready) {
+                removedWhileLoading.add(uuid);
+            }
+            final int slot = slotsByUuid.remove(uuid);
+            if (slot == UuidSlotMap.MISSING) {
+                return;
+            }
+            live.clear(slot);
+            garbageTextBytes += nameLengths[slot] + descriptionLengths[slot];
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+            }
+            freeSlots[freeSlotCount++] = slot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            live.clear();
+            slotsByUuid.clear();
+            slotCount = 0;
+            freeSlotCount = 0;
+            textSize = 0;
+            garbageTextBytes = 0;
+            priceIndex = new long[0];
+            priceDeltaSize = 0;
+            inPriceDelta.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsByUuid.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Heap taken by columns, indexes and texts including their garbage and unused capacity.
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            final long longColumns = 6L * 8 * ids.length;
+            final long intColumns = 5L * 4 * versions.length;
+            return longColumns + intColumns + text.length + slotsByUuid.estimatedBytes()
+                    + 8L * priceIndex.length + 4L * priceDelta.length + 4L * freeSlots.length
+                    + (live.size() + inPriceDelta.size()) / 8;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Same result as the database query built from the filter, sort has to be one of {@link ItemSortField}
+     * with id as tie-breaker, as prepared by the catalog API.
+     */
+    public Page<ItemDto> findAll(final ItemFetchFilter filter, final Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            final int[] matching = findMatchingSlots(filter);
+            final int total = matching.length;
+            final long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+            if (offset >= total) {
+                return new PageImpl<>(List.of(), pageable, total);
+            }
+            final int end = pageable.isPaged() ? (int) Math.min(total, offset + pageable.getPageSize()) : total;
+            final int[] top = top(matching, end, comparator(pageable.getSort()));
+            final List<ItemDto> content = new ArrayList<>(end - (int) offset);
+            for (int i = (int) offset; i < end; i++) {
+                content.add(toDto(top[i]));
+            }
+            return new PageImpl<>(content, pageable, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("items.columnar.items", this, ItemColumnStore::size)
+                .description("Items in the columnar read model")
+                .register(registry);
+        Gauge.builder("items.columnar.memory", this, ItemColumnStore::estimatedBytes)
+                .description("Estimated heap used by the columnar read model")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private int[] findMatchingSlots(final ItemFetchFilter filter) {
+        long low = Long.MIN_VALUE;
+        long high = Long.MAX_VALUE;
+        if (filter.price() != null) {
+            final BigDecimal scaled = filter.price().movePointRight(PRICE_SCALE);
+            if (scaled.stripTrailingZeros().scale() > 0) {
+                return new int[0];
+            }
+            low = high = clamp(scaled);
+        }
+        if (filter.lessThenPrice() != null) {
+            final BigDecimal scaled = filter.lessThenPrice().movePointRight(PRICE_SCALE).setScale(0, RoundingMode.CEILING);
+            high = Math.min(high, clamp(scaled) - 1);
+        }
+        if (filter.greaterThanPrice() != null) {
+            final BigDecimal scaled = filter.greaterThanPrice().movePointRight(PRICE_SCALE).setScale(0, RoundingMode.FLOOR);
+            low = Math.max(low, clamp(scaled) + 1);
+        }
+        if (low > high) {
+            return new int[0];
+        }
+
+        final ItemFilterMatcher textMatcher = filter.name() == null && filter.description() == null ? null
+                : ItemFilterMatcher.of(new ItemFetchFilter(filter.name(), filter.description(), null, null, null));
+        final SlotList matching = new SlotList();
+        if (low == Long.MIN_VALUE && high == Long.MAX_VALUE) {
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                addIfTextMatches(matching, slot, filter, textMatcher);
+            }
+            return matching.toArray();
+        }
+        // index entries of slots changed since the last merge are stale, delta has their current price
+        final long first = pack(Math.max(low, MIN_INDEXED_PRICE), 0);
+        final long last = pack(Math.min(high, MAX_INDEXED_PRICE), Integer.MAX_VALUE);
+        int position = Arrays.binarySearch(priceIndex, first);
+        for (position = position < 0 ? -position - 1 : position; position < priceIndex.length && priceIndex[position] <= last; position++) {
+            final int slot = (int) priceIndex[position];
+            if (live.get(slot) && !inPriceDelta.get(slot)) {
+                addIfTextMatches(matching, slot, filter, textMatcher);
+            }
+        }
+        for (int i = 0; i < priceDeltaSize; i++) {
+            final int slot = priceDelta[i];
+            if (live.get(slot) && prices[slot] >= low && prices[slot] <= high) {
+                addIfTextMatches(matching, slot, filter, textMatcher);
+            }
+        }
+        return matching.toArray();
+    }
+
+    private void addIfTextMatches(final SlotList matching, final int slot, final ItemFetchFilter filter, final ItemFilterMatcher textMatcher) {
+        // only texts that are filtered on are decoded
+        if (textMatcher == null || textMatcher.matches(
+                filter.name() == null ? null : decode(nameOffsets[slot], nameLengths[slot]),
+                filter.description() == null ? null : decode(descriptionOffsets[slot], descriptionLengths[slot]),
+                null)) {
+            matching.add(slot);
+        }
+    }
+
+    private SlotComparator comparator(final Sort sort) {
+        final Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc(ItemSortField.ID.getProperty()));
+        final ItemSortField field = ItemSortField.fromProperty(order.getProperty())
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort property: " + order.getProperty()));
+        final SlotComparator byId = (a, b) -> Long.compare(ids[a], ids[b]);
+        final SlotComparator ascending = switch (field) {
+            case ID -> byId;
+            // unsigned UTF-8 byte order is code point order
+            case NAME -> byId.after((a, b) -> Arrays.compareUnsigned(text, nameOffsets[a], nameOffsets[a] + nameLengths[a],
+                    text, nameOffsets[b], nameOffsets[b] + nameLengths[b]));
+            case PRICE -> byId.after((a, b) -> Long.compare(prices[a], prices[b]));
+            case CREATION_DATE -> byId.after((a, b) -> Long.compare(creationDates[a], creationDates[b]));
+        };
+        return order.isAscending() ? ascending : (a, b) -> ascending.compare(b, a);
+    }
+
+    /**
+     * First {@code count} slots in comparator order, selected with bounded heap, so only as many slots as are needed
+     * for the requested page are sorted.
+     */
+    private static int[] top(final int[] slots, final int count, final SlotComparator comparator) {
+        // max-heap of the best slots so far, root is the worst of them
+        final int[] heap = new int[count];
+        int size = 0;
+        for (final int slot : slots) {
+            if (size < count) {
+                heap[size] = slot;
+                siftUp(heap, size++, comparator);
+            } else if (comparator.compare(slot, heap[0]) < 0) {
+                heap[0] = slot;
+                siftDown(heap, 0, size, comparator);
+            }
+        }
+        for (int end = size - 1; end > 0; end--) {
+            final int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(heap, 0, end, comparator);
+        }
+        return heap;
+    }
+
+    private static void siftUp(final int[] heap, int position, final SlotComparator comparator) {
+        while (position > 0) {
+            final int parent = (position - 1) >>> 1;
+            if (comparator.compare(heap[position], heap[parent]) <= 0) {
+                return;
+            }
+            swap(heap, position, parent);
+            position = parent;
+        }
+    }
+
+    private static void siftDown(final int[] heap, int position, final int size, final SlotComparator comparator) {
+        while (true) {
+            final int left = 2 * position + 1;
+            if (left >= size) {
+                return;
+            }
+            final int right = left + 1;
+            final int larger = right < size && comparator.compare(heap[right], heap[left]) > 0 ? right : left;
+            if (comparator.compare(heap[larger], heap[position]) <= 0) {
+                return;
+            }
+            swap(heap, position, larger);
+            position = larger;
+        }
+    }
+
+    private static void swap(final int[] heap, final int i, final int j) {
+        final int value = heap[i];
+        heap[i] = heap[j];
+        heap[j] = value;
+    }
+
+    private ItemDto toDto(final int slot) {
+        return new ItemDto(new UUID(uuidMostBits[slot], uuidLeastBits[slot]),
+                decode(nameOffsets[slot], nameLengths[slot]),
+                decode(descriptionOffsets[slot], descriptionLengths[slot]),
+                BigDecimal.valueOf(prices[slot], PRICE_SCALE),
+                toInstant(creationDates[slot]),
+                toInstant(lastModifiedDates[slot]),
+                versions[slot]);
+    }
+
+    private String decode(final int offset, final int length) {
+        return new String(text, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (slotCount == ids.length) {
+            final int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            uuidMostBits = Arrays.copyOf(uuidMostBits, capacity);
+            uuidLeastBits = Arrays.copyOf(uuidLeastBits, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            creationDates = Arrays.copyOf(creationDates, capacity);
+            lastModifiedDates = Arrays.copyOf(lastModifiedDates, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+            nameLengths = Arrays.copyOf(nameLengths, capacity);
+            descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity);
+            descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * Makes room for {@code bytes} more text, by compaction when growing would not be enough.
+     *
+     * @return false when live texts with the new ones would not fit in {@code maxTextBytes}
+     */
+    private boolean ensureTextCapacity(final int bytes) {
+        final long required = (long) textSize + bytes;
+        if (required <= text.length) {
+            return true;
+        }
+        if (required > maxTextBytes) {
+            if (textSize - garbageTextBytes + bytes > maxTextBytes) {
+                return false;
+            }
+            compactText(bytes);
+            return true;
+        }
+        text = Arrays.copyOf(text, (int) Math.min(maxTextBytes, Math.max(2L * text.length, required)));
+        return true;
+    }
+
+    private void giveUp() {
+        log.warn("Item texts do not fit in column store limit of {} bytes, listings are served from the database", maxTextBytes);
+        full = true;
+        ready = false;
+        clear();
+        text = new byte[0];
+        removedWhileLoading.clear();
+    }
+
+    private int appendText(final byte[] bytes) {
+        System.arraycopy(bytes, 0, text, textSize, bytes.length);
+        final int offset = textSize;
+        textSize += bytes.length;
+        return offset;
+    }
+
+    private void compactTextIfNeeded() {
+        if (textSize < MIN_TEXT_COMPACTION || garbageTextBytes * 2 < textSize) {
+            return;
+        }
+        compactText(0);
+    }
+
+    /**
+     * @param reserve bytes to be appended right after compaction, included in the new capacity
+     */
+    private void compactText(final int reserve) {
+        final long liveBytes = textSize - garbageTextBytes + reserve;
+        final byte[] compacted = new byte[(int) Math.min(maxTextBytes, Math.max(INITIAL_CAPACITY, liveBytes * 3 / 2))];
+        int size = 0;
+        for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+            System.arraycopy(text, nameOffsets[slot], compacted, size, nameLengths[slot]);
+            nameOffsets[slot] = size;
+            size += nameLengths[slot];
+            System.arraycopy(text, descriptionOffsets[slot], compacted, size, descriptionLengths[slot]);
+            descriptionOffsets[slot] = size;
+            size += descriptionLengths[slot];
+        }
+        text = compacted;
+        textSize = size;
+        garbageTextBytes = 0;
+    }
+
+    private void addToPriceDelta(final int slot) {
+        if (inPriceDelta.get(slot)) {
+            return;
+        }
+        inPriceDelta.set(slot);
+        if (priceDeltaSize == priceDelta.length) {
+            priceDelta = Arrays.copyOf(priceDelta, priceDeltaSize * 2);
+        }
+        priceDelta[priceDeltaSize++] = slot;
+        // during initial load everything would go through delta, it is merged once at the end
+        if (ready && priceDeltaSize > Math.max(MIN_DELTA_MERGE, priceIndex.length >>> 4)) {
+            mergePriceDelta();
+        }
+    }
+
+    private void mergePriceDelta() {
+        final long[] merged = new long[live.cardinality()];
+        int size = 0;
+        for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+            merged[size++] = pack(prices[slot], slot);
+        }
+        Arrays.sort(merged);
+        priceIndex = merged;
+        priceDelta = new int[MIN_DELTA_MERGE];
+        priceDeltaSize = 0;
+        inPriceDelta.clear();
+    }
+
+    private static long pack(final long price, final int slot) {
+        return (price + PRICE_OFFSET) << 32 | slot;
+    }
+
+    private static long clamp(final BigDecimal value) {
+        if (value.compareTo(BigDecimal.valueOf(MIN_INDEXED_PRICE)) < 0) {
+            return MIN_INDEXED_PRICE;
+        }
+        if (value.compareTo(BigDecimal.valueOf(MAX_INDEXED_PRICE)) > 0) {
+            return MAX_INDEXED_PRICE;
+        }
+        return value.longValue();
+    }
+
+    private static long toNanos(final Instant instant) {
+        return instant == null ? NO_DATE : instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private static Instant toInstant(final long nanos) {
+        return nanos == NO_DATE ? null : Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+
+    @FunctionalInterface
+    private interface SlotComparator {
+        int compare(int a, int b);
+
+        /**
+         * Comparator comparing by {@code primary} first, this one breaks ties.
+         */
+        default SlotComparator after(final SlotComparator primary) {
+            return (a, b) -> {
+                final int result = primary.compare(a, b);
+                return result != 0 ? result : compare(a, b);
+            };
+        }
+    }
+
+    private static final class SlotList {
+        private int[] slots = new int[64];
+        private int size;
+
+        void add(final int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(slots, size);
+        }
+    }
+}
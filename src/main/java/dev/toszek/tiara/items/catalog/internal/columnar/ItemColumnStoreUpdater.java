@@ -0,0 +1,101 @@
+package dev.toszek.tiara.items.catalog.internal.columnar;
+
+import dev.toszek.tiara.items.catalog.internal.entity.Item;
+import dev.toszek.tiara.items.catalog.internal.entity.Item_;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangeBatchEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemsChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.mapper.ItemMapper;
+import dev.toszek.tiara.items.catalog.internal.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Loads {@link ItemColumnStore} from item table on startup and applies committed changes afterwards.
+ * Listings are served by the store only when {@code app.catalog.columnar.enabled} is set.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.catalog.columnar.enabled", havingValue = "true")
+public class ItemColumnStoreUpdater {
+    private static final int RELOAD_CHUNK_SIZE = 1000;
+
+    private final ItemColumnStore store;
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ItemColumnStoreUpdater(final ItemColumnStore store,
+                                  final ItemRepository itemRepository,
+                                  final ItemMapper itemMapper,
+                                  final PlatformTransactionManager transactionManager) {
+        this.store = store;
+        this.itemRepository = itemRepository;
+        this.itemMapper = itemMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Changes committed while the load runs are applied by their events, the load never replaces them with older version.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        final long start = System.nanoTime();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            final Specification<Item> all = (root, query, criteriaBuilder) -> null;
+            try (Stream<Item> items = itemRepository.streamAll(all, Sort.by(Item_.ID))) {
+                items.forEach(item -> store.upsert(item.getId(), itemMapper.toDto(item)));
+            }
+        });
+        store.markReady();
+        log.info("Item column store loaded with {} items in {} ms, ~{} MB", store.size(),
+                (System.nanoTime() - start) / 1_000_000, store.estimatedBytes() / (1024 * 1024));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(final ItemChangedEvent event) {
+        if (event.after() != null) {
+            store.upsert(event.itemId(), event.after());
+        } else {
+            store.remove(event.uuid());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChangeBatch(final ItemChangeBatchEvent event) {
+        event.changes().forEach(this::onItemChanged);
+    }
+
+    /**
+     * State of these items is not known from the event, it is read back from the table.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsChanged(final ItemsChangedEvent event) {
+        final List<UUID> uuids = new ArrayList<>(event.uuids());
+        for (int from = 0; from < uuids.size(); from += RELOAD_CHUNK_SIZE) {
+            final List<UUID> chunk = uuids.subList(from, Math.min(from + RELOAD_CHUNK_SIZE, uuids.size()));
+            final Set<UUID> missing = new HashSet<>(chunk);
+            for (ItemRow row : itemRepository.findByUuidIn(chunk, ItemRow.class)) {
+                store.upsert(row.id(), row.toDto());
+                missing.remove(row.uuid());
+            }
+            missing.forEach(store::remove);
+        }
+    }
+}
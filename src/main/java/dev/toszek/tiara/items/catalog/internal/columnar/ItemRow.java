@@ -0,0 +1,24 @@
+package dev.toszek.tiara.items.catalog.internal.columnar;
+
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Projection of item with its database id, which {@link ItemDto} does not carry.
+ */
+public record ItemRow(Long id,
+                      UUID uuid,
+                      String name,
+                      String description,
+                      BigDecimal price,
+                      Instant creationDate,
+                      Instant lastModifiedDate,
+                      int version) {
+
+    ItemDto toDto() {
+        return new ItemDto(uuid, name, description, price, creationDate, lastModifiedDate, version);
+    }
+}
@@ -0,0 +1,123 @@
+package dev.toszek.tiara.items.catalog.internal.columnar;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open addressing map from uuid to row slot, keys are kept as two longs, so there is no object per entry.
+ * Linear probing, removal shifts following entries back instead of leaving tombstones. Not thread safe.
+ */
+final class UuidSlotMap {
+    static final int MISSING = -1;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] mostSignificant;
+    private long[] leastSignificant;
+    private int[] slots;
+    private int size;
+
+    UuidSlotMap(final int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(final UUID uuid) {
+        final int mask = slots.length - 1;
+        for (int i = indexOf(uuid, mask); slots[i] != MISSING; i = (i + 1) & mask) {
+            if (matches(i, uuid)) {
+                return slots[i];
+            }
+        }
+        return MISSING;
+    }
+
+    void put(final UUID uuid, final int slot) {
+        if (size + 1 > slots.length * LOAD_FACTOR) {
+            resize();
+        }
+        final int mask = slots.length - 1;
+        int i = indexOf(uuid, mask);
+        while (slots[i] != MISSING) {
+            if (matches(i, uuid)) {
+                slots[i] = slot;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        mostSignificant[i] = uuid.getMostSignificantBits();
+        leastSignificant[i] = uuid.getLeastSignificantBits();
+        slots[i] = slot;
+        size++;
+    }
+
+    int remove(final UUID uuid) {
+        final int mask = slots.length - 1;
+        int i = indexOf(uuid, mask);
+        while (slots[i] != MISSING && !matches(i, uuid)) {
+            i = (i + 1) & mask;
+        }
+        final int removed = slots[i];
+        if (removed == MISSING) {
+            return MISSING;
+        }
+        // move back entries which probe sequence went over the freed position
+        int free = i;
+        for (int next = (i + 1) & mask; slots[next] != MISSING; next = (next + 1) & mask) {
+            final int home = hash(mostSignificant[next], leastSignificant[next]) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                mostSignificant[free] = mostSignificant[next];
+                leastSignificant[free] = leastSignificant[next];
+                slots[free] = slots[next];
+                free = next;
+            }
+        }
+        slots[free] = MISSING;
+        size--;
+        return removed;
+    }
+
+    void clear() {
+        Arrays.fill(slots, MISSING);
+        size = 0;
+    }
+
+    long estimatedBytes() {
+        return slots.length * (8L + 8L + 4L);
+    }
+
+    private void resize() {
+        final long[] oldMostSignificant = mostSignificant;
+        final long[] oldLeastSignificant = leastSignificant;
+        final int[] oldSlots = slots;
+        allocate(oldSlots.length * 2);
+        size = 0;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != MISSING) {
+                put(new UUID(oldMostSignificant[i], oldLeastSignificant[i]), oldSlots[i]);
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        mostSignificant = new long[capacity];
+        leastSignificant = new long[capacity];
+        slots = new int[capacity];
+        Arrays.fill(slots, MISSING);
+    }
+
+    private boolean matches(final int i, final UUID uuid) {
+        return mostSignificant[i] == uuid.getMostSignificantBits() && leastSignificant[i] == uuid.getLeastSignificantBits();
+    }
+
+    private static int indexOf(final UUID uuid, final int mask) {
+        return hash(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) & mask;
+    }
+
+    private static int hash(final long mostSignificant, final long leastSignificant) {
+        final long mixed = (mostSignificant ^ leastSignificant) * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
@@ -0,0 +1,19 @@
+package dev.toszek.tiara.items.catalog.internal.event;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Changes of many items made by one bulk operation, published once instead of {@link ItemChangedEvent} per item,
+ * so listeners handle the whole batch at once, e.g. with one statement.
+ */
+public record ItemChangeBatchEvent(List<ItemChangedEvent> changes) {
+
+    public ItemChangeBatchEvent {
+        changes = List.copyOf(changes);
+    }
+
+    public List<UUID> uuids() {
+        return changes.stream().map(ItemChangedEvent::uuid).toList();
+    }
+}
@@ -0,0 +1,26 @@
+package dev.toszek.tiara.items.catalog.internal.event;
+
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+
+import java.util.UUID;
+
+/**
+ * Published by catalog write path for every changed item, bulk operations publish these in {@link ItemChangeBatchEvent}.
+ * {@code before} is null for created item, {@code after} is null for deleted one.
+ *
+ * @param itemId database id of the item, not part of {@link ItemDto}
+ */
+public record ItemChangedEvent(UUID uuid, long itemId, ItemDto before, ItemDto after) {
+
+    public static ItemChangedEvent created(final long itemId, final ItemDto item) {
+        return new ItemChangedEvent(item.uuid(), itemId, null, item);
+    }
+
+    public static ItemChangedEvent updated(final long itemId, final ItemDto before, final ItemDto after) {
+        return new ItemChangedEvent(after.uuid(), itemId, before, after);
+    }
+
+    public static ItemChangedEvent deleted(final long itemId, final ItemDto item) {
+        return new ItemChangedEvent(item.uuid(), itemId, item, null);
+    }
+}
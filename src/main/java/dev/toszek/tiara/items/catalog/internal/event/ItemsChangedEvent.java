@@ -0,0 +1,21 @@
+package dev.toszek.tiara.items.catalog.internal.event;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Items changed, but their state before and after the change is not known here, listeners have to reload them if needed.
+ *
+ * @param remote true when change was made by another instance of the service
+ */
+public record ItemsChangedEvent(Set<UUID> uuids, boolean remote) {
+
+    public static ItemsChangedEvent local(final Collection<UUID> uuids) {
+        return new ItemsChangedEvent(Set.copyOf(uuids), false);
+    }
+
+    public static ItemsChangedEvent remote(final Collection<UUID> uuids) {
+        return new ItemsChangedEvent(Set.copyOf(uuids), true);
+    }
+}
@@ -0,0 +1,100 @@
+package dev.toszek.tiara.items.catalog.internal.exporter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.toszek.tiara.items.catalog.command.ItemFileFormat;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes items to output one by one as they come from the stream, nothing but the current item is held in memory.
+ */
+@Component
+public class ItemExporter {
+    private static final String CSV_HEADER = "uuid,name,description,price,creationDate,lastModifiedDate";
+
+    private final ObjectWriter jsonWriter;
+
+    public ItemExporter(final ObjectMapper objectMapper) {
+        this.jsonWriter = objectMapper.writerFor(ItemDto.class);
+    }
+
+    /**
+     * Output stream is flushed but not closed.
+     *
+     * @return number of exported items
+     */
+    public long export(final Stream<ItemDto> items, final ItemFileFormat format, final OutputStream outputStream) {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        long exported = 0;
+        try {
+            if (format == ItemFileFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            final Iterator<ItemDto> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                final ItemDto item = iterator.next();
+                switch (format) {
+                    case NDJSON -> writeJson(writer, item);
+                    case CSV -> writeCsv(writer, item);
+                }
+                exported++;
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return exported;
+    }
+
+    private void writeJson(final Writer writer, final ItemDto item) throws IOException {
+        try {
+            writer.write(jsonWriter.writeValueAsString(item));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Item " + item.uuid() + " could not be serialized", e);
+        }
+        writer.write('\n');
+    }
+
+    private static void writeCsv(final Writer writer, final ItemDto item) throws IOException {
+        writer.write(item.uuid().toString());
+        writer.write(',');
+        writeCsvField(writer, item.name());
+        writer.write(',');
+        writeCsvField(writer, item.description());
+        writer.write(',');
+        writer.write(item.price().toPlainString());
+        writer.write(',');
+        writer.write(toString(item.creationDate()));
+        writer.write(',');
+        writer.write(toString(item.lastModifiedDate()));
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(final Writer writer, final String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String toString(final Instant instant) {
+        return instant == null ? "" : instant.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package dev.toszek.tiara.items.catalog.internal.filter;
+
+import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+
+import java.math.BigDecimal;
+import java.util.regex.Pattern;
+
+/**
+ * In memory evaluation of {@link ItemFetchFilter}, with the same semantics as database query built from it:
+ * case-sensitive LIKE with % and _ wildcards and backslash as escape character, numeric price comparison.
+ */
+public final class ItemFilterMatcher {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final Pattern namePattern;
+    private final Pattern descriptionPattern;
+    private final BigDecimal price;
+    private final BigDecimal lessThenPrice;
+    private final BigDecimal greaterThanPrice;
+
+    private ItemFilterMatcher(final ItemFetchFilter filter) {
+        this.namePattern = filter.name() == null ? null : likeToRegex(filter.name());
+        this.descriptionPattern = filter.description() == null ? null : likeToRegex(filter.description());
+        this.price = filter.price();
+        this.lessThenPrice = filter.lessThenPrice();
+        this.greaterThanPrice = filter.greaterThanPrice();
+    }
+
+    public static ItemFilterMatcher of(final ItemFetchFilter filter) {
+        return new ItemFilterMatcher(filter);
+    }
+
+    public boolean matches(final ItemDto item) {
+        return item != null && matches(item.name(), item.description(), item.price());
+    }
+
+    public boolean matches(final String name, final String description, final BigDecimal itemPrice) {
+        return matchesPrice(itemPrice) && matchesText(namePattern, name) && matchesText(descriptionPattern, description);
+    }
+
+    public boolean matchesPrice(final BigDecimal itemPrice) {
+        if (price == null && lessThenPrice == null && greaterThanPrice == null) {
+            return true;
+        }
+        if (itemPrice == null) {
+            return false;
+        }
+        return (price == null || itemPrice.compareTo(price) == 0)
+                && (lessThenPrice == null || itemPrice.compareTo(lessThenPrice) < 0)
+                && (greaterThanPrice == null || itemPrice.compareTo(greaterThanPrice) > 0);
+    }
+
+    private static boolean matchesText(final Pattern pattern, final String value) {
+        return pattern == null || value != null && pattern.matcher(value).matches();
+    }
+
+    static Pattern likeToRegex(final String like) {
+        final StringBuilder regex = new StringBuilder();
+        final StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < like.length(); i++) {
+            final char c = like.charAt(i);
+            if (c == LIKE_ESCAPE && i + 1 < like.length()) {
+                literal.append(like.charAt(++i));
+            } else if (c == '%' || c == '_') {
+                appendLiteral(regex, literal);
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        appendLiteral(regex, literal);
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private static void appendLiteral(final StringBuilder regex, final StringBuilder literal) {
+        if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal.toString()));
+            literal.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package dev.toszek.tiara.items.catalog.internal.importer;
+
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import dev.toszek.tiara.items.catalog.exception.InvalidItemImportException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * RFC 4180 csv, comma separated, fields with comma, quote or line break are enclosed in double quotes.
+ * First record is header, it has to contain {@code name}, {@code description} and {@code price} columns, other columns are ignored.
+ */
+class CsvItemRecordReader implements ItemRecordReader {
+    private static final int NO_CHAR = -2;
+
+    private final Reader reader;
+    private final int maxRecordLength;
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private int nameColumn = -1;
+    private int descriptionColumn = -1;
+    private int priceColumn = -1;
+    private long lineNumber = 1;
+    private long recordLine;
+    private int lookahead = NO_CHAR;
+    private String recordError;
+
+    CsvItemRecordReader(final Reader reader, final int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    @Override
+    public ItemImportRecord next() throws IOException {
+        if (nameColumn < 0 && !readHeader()) {
+            return null;
+        }
+        while (readRecord()) {
+            if (recordError != null) {
+                return ItemImportRecord.invalid(recordLine, recordError);
+            }
+            if (fields.size() == 1 && fields.getFirst().isBlank()) {
+                continue;
+            }
+            return toRecord();
+        }
+        return null;
+    }
+
+    private boolean readHeader() throws IOException {
+        if (!readRecord()) {
+            return false;
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            switch (fields.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "name" -> nameColumn = i;
+                case "description" -> descriptionColumn = i;
+                case "price" -> priceColumn = i;
+                default -> {
+                    // not imported
+                }
+            }
+        }
+        if (recordError != null || nameColumn < 0 || descriptionColumn < 0 || priceColumn < 0) {
+            throw new InvalidItemImportException("CSV header has to contain name, description and price columns");
+        }
+        return true;
+    }
+
+    private ItemImportRecord toRecord() {
+        final int columns = Math.max(nameColumn, Math.max(descriptionColumn, priceColumn)) + 1;
+        if (fields.size() < columns) {
+            return ItemImportRecord.invalid(recordLine, "Expected at least " + columns + " columns, got " + fields.size());
+        }
+        final String price = fields.get(priceColumn).trim();
+        try {
+            return ItemImportRecord.parsed(recordLine, new SaveItemCommand(fields.get(nameColumn), fields.get(descriptionColumn),
+                    price.isEmpty() ? null : new BigDecimal(price)));
+        } catch (NumberFormatException e) {
+            return ItemImportRecord.invalid(recordLine, "price: not a number");
+        }
+    }
+
+    /**
+     * Reads fields of next record, sets {@link #recordError} when record is malformed.
+     *
+     * @return false at the end of input
+     */
+    private boolean readRecord() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        recordError = null;
+        recordLine = lineNumber;
+        int length = 0;
+        boolean quoted = false;
+        int c = read();
+        if (c == -1) {
+            return false;
+        }
+        for (; ; c = read()) {
+            if (c == -1) {
+                if (quoted && recordError == null) {
+                    recordError = "Unterminated quoted field";
+                }
+                endField();
+                return true;
+            }
+            if (++length > maxRecordLength && recordError == null) {
+                recordError = "Record is longer than " + maxRecordLength + " characters";
+            }
+            if (c == '\n') {
+                lineNumber++;
+            }
+            if (quoted) {
+                if (c != '"') {
+                    append(c);
+                } else if ((lookahead = read()) == '"') {
+                    lookahead = NO_CHAR;
+                    append('"');
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                endField();
+            } else if (c == '\n') {
+                endField();
+                return true;
+            } else if (c != '\r') {
+                append(c);
+            }
+        }
+    }
+
+    private void endField() {
+        if (recordError == null) {
+            fields.add(field.toString());
+        }
+        field.setLength(0);
+    }
+
+    private void append(final int c) {
+        if (recordError == null) {
+            field.append((char) c);
+        }
+    }
+
+    private int read() throws IOException {
+        if (lookahead != NO_CHAR) {
+            final int c = lookahead;
+            lookahead = NO_CHAR;
+            return c;
+        }
+        return reader.read();
+    }
+}
@@ -0,0 +1,17 @@
+package dev.toszek.tiara.items.catalog.internal.importer;
+
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+
+/**
+ * One record of imported file, either parsed command or error why it could not be parsed.
+ */
+record ItemImportRecord(long line, SaveItemCommand command, String error) {
+
+    static ItemImportRecord parsed(final long line, final SaveItemCommand command) {
+        return new ItemImportRecord(line, command, null);
+    }
+
+    static ItemImportRecord invalid(final long line, final String error) {
+        return new ItemImportRecord(line, null, error);
+    }
+}
@@ -0,0 +1,129 @@
+package dev.toszek.tiara.items.catalog.internal.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.toszek.tiara.items.catalog.command.ItemFileFormat;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import dev.toszek.tiara.items.catalog.dto.ItemImportErrorDto;
+import dev.toszek.tiara.items.catalog.dto.ItemImportSummaryDto;
+import dev.toszek.tiara.items.catalog.internal.entity.Item;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangeBatchEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.mapper.ItemMapper;
+import dev.toszek.tiara.items.catalog.internal.repository.ItemRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Imports items streamed from input, record by record. Valid items are committed in chunks, so memory use depends
+ * only on chunk size, not on size of the input. Chunks committed before a failure of the import stay in the database.
+ */
+@Component
+public class ItemImporter {
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final int maxRecordLength;
+
+    public ItemImporter(final ItemRepository itemRepository,
+                        final ItemMapper itemMapper,
+                        final Validator validator,
+                        final ObjectMapper objectMapper,
+                        final TransactionTemplate transactionTemplate,
+                        final ApplicationEventPublisher eventPublisher,
+                        @Value("${app.catalog.import.chunk-size:1000}") final int chunkSize,
+                        @Value("${app.catalog.import.max-reported-errors:100}") final int maxReportedErrors,
+                        @Value("${app.catalog.import.max-record-length:16384}") final int maxRecordLength) {
+        this.itemRepository = itemRepository;
+        this.itemMapper = itemMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    public ItemImportSummaryDto importItems(final Reader reader, final ItemFileFormat format) {
+        final ItemRecordReader records = switch (format) {
+            case NDJSON -> new NdjsonItemRecordReader(reader, objectMapper.reader(), maxRecordLength);
+            case CSV -> new CsvItemRecordReader(reader, maxRecordLength);
+        };
+        final List<ItemImportErrorDto> errors = new ArrayList<>();
+        List<Item> chunk = new ArrayList<>(chunkSize);
+        long recordsRead = 0;
+        long created = 0;
+        long failed = 0;
+        ItemImportRecord record;
+        while ((record = nextRecord(records)) != null) {
+            recordsRead++;
+            final String error = record.error() != null ? record.error() : validate(record.command());
+            if (error != null) {
+                failed++;
+                if (errors.size() < maxReportedErrors) {
+                    errors.add(new ItemImportErrorDto(record.line(), error));
+                }
+                continue;
+            }
+            chunk.add(itemMapper.fromCreateCommand(record.command(), UUID.randomUUID()));
+            if (chunk.size() == chunkSize) {
+                created += commit(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += commit(chunk);
+        }
+        return new ItemImportSummaryDto(recordsRead, created, failed, errors, failed > errors.size());
+    }
+
+    private int commit(final List<Item> chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            itemRepository.persistAll(chunk);
+            // one event per chunk with the new items, so listeners apply the chunk without reading it back
+            final List<ItemChangedEvent> changes = new ArrayList<>(chunk.size());
+            for (Item item : chunk) {
+                changes.add(ItemChangedEvent.created(item.getId(), itemMapper.toDto(item)));
+            }
+            eventPublisher.publishEvent(new ItemChangeBatchEvent(changes));
+        });
+        return chunk.size();
+    }
+
+    private String validate(final SaveItemCommand command) {
+        final Set<ConstraintViolation<SaveItemCommand>> violations = validator.validate(command);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static ItemImportRecord nextRecord(final ItemRecordReader records) {
+        try {
+            return records.next();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
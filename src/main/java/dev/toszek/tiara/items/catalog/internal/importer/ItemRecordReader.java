@@ -0,0 +1,13 @@
+package dev.toszek.tiara.items.catalog.internal.importer;
+
+import java.io.IOException;
+
+/**
+ * Reads imported items one record at a time, only current record is held in memory.
+ */
+interface ItemRecordReader {
+    /**
+     * @return next record or null at the end of input
+     */
+    ItemImportRecord next() throws IOException;
+}
@@ -0,0 +1,66 @@
+package dev.toszek.tiara.items.catalog.internal.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * One json object per line, blank lines are skipped.
+ */
+class NdjsonItemRecordReader implements ItemRecordReader {
+    private final Reader reader;
+    private final ObjectReader objectReader;
+    private final int maxRecordLength;
+    private final StringBuilder line = new StringBuilder();
+    private long lineNumber;
+    private boolean endOfInput;
+
+    NdjsonItemRecordReader(final Reader reader, final ObjectReader objectReader, final int maxRecordLength) {
+        this.reader = reader;
+        this.objectReader = objectReader.forType(SaveItemCommand.class);
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    @Override
+    public ItemImportRecord next() throws IOException {
+        while (!endOfInput) {
+            lineNumber++;
+            if (!readLine()) {
+                return ItemImportRecord.invalid(lineNumber, "Record is longer than " + maxRecordLength + " characters");
+            }
+            if (line.toString().isBlank()) {
+                continue;
+            }
+            try {
+                final SaveItemCommand command = objectReader.readValue(line.toString());
+                return command != null
+                        ? ItemImportRecord.parsed(lineNumber, command)
+                        : ItemImportRecord.invalid(lineNumber, "Record is not an item object");
+            } catch (JsonProcessingException e) {
+                return ItemImportRecord.invalid(lineNumber, e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return false if line did not fit into max record length, its remaining characters are skipped
+     */
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        boolean fits = true;
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (line.length() < maxRecordLength) {
+                line.append((char) c);
+            } else {
+                fits = false;
+            }
+        }
+        endOfInput = c == -1;
+        return fits;
+    }
+}
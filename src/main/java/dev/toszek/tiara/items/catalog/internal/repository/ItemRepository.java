@@ -3,14 +3,57 @@ package dev.toszek.tiara.items.catalog.internal.repository;
 import dev.toszek.tiara.items.catalog.internal.entity.Item;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface ItemRepository extends JpaRepository<Item, Long>, JpaSpecificationExecutor<Item> {
+public interface ItemRepository extends JpaRepository<Item, Long>, JpaSpecificationExecutor<Item>, ItemRepositoryCustom {
     Optional<Item> findItemByUuid(UUID uuid);
 
     <T> Optional<T> findItemByUuid(UUID uuid, Class<T> type);
 
-    void deleteItemByUuid(UUID uuid);
+    <T> List<T> findByUuidIn(Collection<UUID> uuids, Class<T> type);
+
+    /**
+     * @return deleted items, so callers can tell what was removed
+     */
+    List<Item> deleteItemByUuid(UUID uuid);
+
+    /**
+     * @return number of updated items, 0 when item does not exist in any of expected versions
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Item i set i.name = :name, i.description = :description, i.price = :price, i.version = i.version + 1, " +
+            "i.lastModifiedDate = :modifiedAt where i.uuid = :uuid and i.version in :versions")
+    int updateIfVersion(@Param("uuid") UUID uuid, @Param("versions") Collection<Integer> versions, @Param("name") String name,
+                        @Param("description") String description, @Param("price") BigDecimal price, @Param("modifiedAt") Instant modifiedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Item i where i.uuid = :uuid and i.version in :versions")
+    int deleteIfVersion(@Param("uuid") UUID uuid, @Param("versions") Collection<Integer> versions);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Item i where i.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Item i set i.price = :price, i.version = i.version + 1, i.lastModifiedDate = :modifiedAt where i.id in :ids")
+    int setPrice(@Param("ids") Collection<Long> ids, @Param("price") BigDecimal price, @Param("modifiedAt") Instant modifiedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Item i set i.price = least(greatest(i.price + :change, 0), :maxPrice), i.version = i.version + 1, i.lastModifiedDate = :modifiedAt where i.id in :ids")
+    int changePrice(@Param("ids") Collection<Long> ids, @Param("change") BigDecimal change, @Param("maxPrice") BigDecimal maxPrice,
+                    @Param("modifiedAt") Instant modifiedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Item i set i.price = least(round(i.price * :factor, 2), :maxPrice), i.version = i.version + 1, i.lastModifiedDate = :modifiedAt where i.id in :ids")
+    int scalePrice(@Param("ids") Collection<Long> ids, @Param("factor") BigDecimal factor, @Param("maxPrice") BigDecimal maxPrice,
+                   @Param("modifiedAt") Instant modifiedAt);
 }
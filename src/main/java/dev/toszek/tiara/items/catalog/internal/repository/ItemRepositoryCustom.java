@@ -0,0 +1,32 @@
+package dev.toszek.tiara.items.catalog.internal.repository;
+
+import dev.toszek.tiara.items.catalog.internal.entity.Item;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ItemRepositoryCustom {
+    /**
+     * Same as {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor#findAll(Specification, Pageable)}
+     * but without count query, one extra row is fetched to tell if there is next slice.
+     */
+    Slice<Item> findSlice(Specification<Item> specification, Pageable pageable);
+
+    /**
+     * Persists new items flushing them in chunks of {@code hibernate.jdbc.batch_size}, so every chunk goes to the database
+     * as one JDBC batch. Persisted items are detached after their chunk is flushed, persistence context does not grow
+     * with number of items. Requires transaction.
+     */
+    void persistAll(List<Item> items);
+
+    /**
+     * Forward-only stream of matching items, rows are fetched from the database in batches as the stream is consumed.
+     * Items are detached before they are returned, so persistence context does not grow with number of rows.
+     * Requires transaction, stream has to be closed.
+     */
+    Stream<Item> streamAll(Specification<Item> specification, Sort sort);
+}
@@ -0,0 +1,95 @@
+package dev.toszek.tiara.items.catalog.internal.repository;
+
+import dev.toszek.tiara.items.catalog.internal.entity.Item;
+import dev.toszek.tiara.shared.timing.RequestPhase;
+import dev.toszek.tiara.shared.timing.RequestTiming;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+    private static final String BATCH_SIZE_PROPERTY = "hibernate.jdbc.batch_size";
+    private static final int DEFAULT_CHUNK_SIZE = 50;
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Slice<Item> findSlice(final Specification<Item> specification, final Pageable pageable) {
+        final long start = RequestTiming.start();
+        final CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Item> query = criteriaBuilder.createQuery(Item.class);
+        final Root<Item> root = query.from(Item.class);
+        final Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+
+        final TypedQuery<Item> typedQuery = entityManager.createQuery(query);
+        RequestTiming.stop(RequestPhase.SPECIFICATION, start);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+        }
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize() + 1);
+        final List<Item> content = typedQuery.getResultList();
+        final boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public Stream<Item> streamAll(final Specification<Item> specification, final Sort sort) {
+        final CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Item> query = criteriaBuilder.createQuery(Item.class);
+        final Root<Item> root = query.from(Item.class);
+        final Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(this::detach);
+    }
+
+    private Item detach(final Item item) {
+        entityManager.detach(item);
+        return item;
+    }
+
+    @Override
+    public void persistAll(final List<Item> items) {
+        final int chunkSize = chunkSize();
+        for (int i = 0; i < items.size(); i++) {
+            entityManager.persist(items.get(i));
+            if ((i + 1) % chunkSize == 0 || i == items.size() - 1) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+    }
+
+    private int chunkSize() {
+        final Object batchSize = entityManager.getEntityManagerFactory().getProperties().get(BATCH_SIZE_PROPERTY);
+        return batchSize == null ? DEFAULT_CHUNK_SIZE : Integer.parseInt(batchSize.toString());
+    }
+}
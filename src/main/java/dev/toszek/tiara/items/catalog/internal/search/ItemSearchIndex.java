@@ -0,0 +1,273 @@
+package dev.toszek.tiara.items.catalog.internal.search;
+
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over item name and description, ranked with BM25. Name terms weigh more than description terms.
+ * <p>
+ * Every indexed item version gets a new document id, postings are appended in document id order, so they stay sorted
+ * and can be intersected with binary search. Replaced and removed documents are only marked as deleted,
+ * postings are compacted once deleted documents outnumber live ones. Document frequencies include deleted documents
+ * until compaction, which slightly skews ranking but not matching.
+ */
+@Component
+public class ItemSearchIndex {
+    static final int NAME_WEIGHT = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_COMPACTION_SIZE = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<UUID, Integer> documentsByUuid = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private UUID[] uuids = new UUID[MIN_COMPACTION_SIZE];
+    private int[] versions = new int[MIN_COMPACTION_SIZE];
+    private int[] lengths = new int[MIN_COMPACTION_SIZE];
+    private int nextDocument;
+    private int liveDocuments;
+    private long totalLength;
+
+    /**
+     * Adds item or replaces its indexed version. Older version than the indexed one is ignored,
+     * so late events or startup rebuild can not overwrite newer state.
+     */
+    public void index(final ItemDto item) {
+        final Map<String, Integer> termFrequencies = new LinkedHashMap<>();
+        ItemTokenizer.tokenize(item.name()).forEach(term -> termFrequencies.merge(term, NAME_WEIGHT, Integer::sum));
+        ItemTokenizer.tokenize(item.description()).forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+        final int length = termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            final Integer current = documentsByUuid.get(item.uuid());
+            if (current != null) {
+                if (versions[current] > item.version()) {
+                    return;
+                }
+                delete(current);
+            }
+            final int document = nextDocument++;
+            ensureCapacity(document);
+            uuids[document] = item.uuid();
+            versions[document] = item.version();
+            lengths[document] = length;
+            termFrequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, key -> new Postings()).add(document, frequency));
+            documentsByUuid.put(item.uuid(), document);
+            liveDocuments++;
+            totalLength += length;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(final UUID uuid) {
+        lock.writeLock().lock();
+        try {
+            final Integer current = documentsByUuid.remove(uuid);
+            if (current != null) {
+                delete(current);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentsByUuid.clear();
+            deleted.clear();
+            nextDocument = 0;
+            liveDocuments = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocuments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Items containing all terms of the query, best match first.
+     *
+     * @return uuids of requested page of hits together with total number of hits
+     */
+    public Hits search(final String query, final long offset, final int limit) {
+        final List<String> terms = ItemTokenizer.tokenize(query).stream().distinct().toList();
+        if (terms.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+        lock.readLock().lock();
+        try {
+            final Postings[] termPostings = new Postings[terms.size()];
+            for (int i = 0; i < terms.size(); i++) {
+                termPostings[i] = postings.get(terms.get(i));
+                if (termPostings[i] == null) {
+                    return new Hits(List.of(), 0);
+                }
+            }
+            // rarest term drives the intersection, others are looked up in it
+            Arrays.sort(termPostings, Comparator.comparingInt(Postings::size));
+            final double[] idfs = Arrays.stream(termPostings).mapToDouble(this::idf).toArray();
+            final double averageLength = liveDocuments == 0 ? 1 : (double) totalLength / liveDocuments;
+            final int wanted = (int) Math.min(Integer.MAX_VALUE - 1, offset + limit);
+            final PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble(Hit::score).thenComparing(Hit::document, Comparator.reverseOrder()));
+            long total = 0;
+
+            final Postings driver = termPostings[0];
+            candidates:
+            for (int p = 0; p < driver.size; p++) {
+                final int document = driver.documents[p];
+                if (deleted.get(document)) {
+                    continue;
+                }
+                double score = idfs[0] * termScore(driver.frequencies[p], lengths[document], averageLength);
+                for (int t = 1; t < termPostings.length; t++) {
+                    final int frequency = termPostings[t].frequencyOf(document);
+                    if (frequency == 0) {
+                        continue candidates;
+                    }
+                    score += idfs[t] * termScore(frequency, lengths[document], averageLength);
+                }
+                total++;
+                if (wanted > 0) {
+                    top.add(new Hit(document, score));
+                    if (top.size() > wanted) {
+                        top.poll();
+                    }
+                }
+            }
+
+            final List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparingInt(Hit::document));
+            final List<UUID> page = ranked.stream()
+                    .skip(offset)
+                    .limit(limit)
+                    .map(hit -> uuids[hit.document()])
+                    .toList();
+            return new Hits(page, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double idf(final Postings termPostings) {
+        final double documentFrequency = Math.min(termPostings.size, Math.max(liveDocuments, 1));
+        return Math.log(1 + (liveDocuments - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static double termScore(final int frequency, final int length, final double averageLength) {
+        return frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private void delete(final int document) {
+        deleted.set(document);
+        liveDocuments--;
+        totalLength -= lengths[document];
+    }
+
+    private void ensureCapacity(final int document) {
+        if (document >= uuids.length) {
+            final int capacity = uuids.length * 2;
+            uuids = Arrays.copyOf(uuids, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+    }
+
+    private void compactIfNeeded() {
+        final int deletedDocuments = nextDocument - liveDocuments;
+        if (nextDocument < MIN_COMPACTION_SIZE || deletedDocuments <= liveDocuments) {
+            return;
+        }
+        // renumber live documents keeping their order, so postings stay sorted
+        final int[] newIds = new int[nextDocument];
+        int next = 0;
+        for (int document = 0; document < nextDocument; document++) {
+            newIds[document] = deleted.get(document) ? -1 : next++;
+            if (newIds[document] >= 0) {
+                uuids[newIds[document]] = uuids[document];
+                versions[newIds[document]] = versions[document];
+                lengths[newIds[document]] = lengths[document];
+            }
+        }
+        postings.values().removeIf(termPostings -> termPostings.remap(newIds) == 0);
+        documentsByUuid.replaceAll((uuid, document) -> newIds[document]);
+        Arrays.fill(uuids, next, nextDocument, null);
+        deleted.clear();
+        nextDocument = next;
+    }
+
+    public record Hits(List<UUID> uuids, long total) {
+    }
+
+    private record Hit(int document, double score) {
+    }
+
+    private static final class Postings {
+        private int[] documents = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void add(final int document, final int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        int frequencyOf(final int document) {
+            final int position = Arrays.binarySearch(documents, 0, size, document);
+            return position >= 0 ? frequencies[position] : 0;
+        }
+
+        /**
+         * @return number of postings left
+         */
+        int remap(final int[] newIds) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                final int document = newIds[documents[i]];
+                if (document >= 0) {
+                    documents[kept] = document;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package dev.toszek.tiara.items.catalog.internal.search;
+
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.internal.entity.Item;
+import dev.toszek.tiara.items.catalog.internal.entity.Item_;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangeBatchEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemsChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.mapper.ItemMapper;
+import dev.toszek.tiara.items.catalog.internal.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link ItemSearchIndex} and {@link ItemSuggestIndex} in sync with item table: builds it from the table on startup
+ * and applies committed changes afterwards.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndexUpdater {
+    private static final int RELOAD_CHUNK_SIZE = 1000;
+
+    private final ItemSearchIndex index;
+    private final ItemSuggestIndex suggestIndex;
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    // not a monitor, a virtual thread applying events would pin its carrier thread while waiting
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final Set<UUID> removedWhileRebuilding = new HashSet<>();
+    private boolean rebuilding;
+
+    public ItemSearchIndexUpdater(final ItemSearchIndex index,
+                                  final ItemSuggestIndex suggestIndex,
+                                  final ItemRepository itemRepository,
+                                  final ItemMapper itemMapper,
+                                  final PlatformTransactionManager transactionManager) {
+        this.index = index;
+        this.suggestIndex = suggestIndex;
+        this.itemRepository = itemRepository;
+        this.itemMapper = itemMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Items changed while the rebuild runs are indexed by their events, rebuild never replaces them with older version.
+     * Items removed while it runs are remembered, so rebuild does not add them back from its older snapshot.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        final long start = System.nanoTime();
+        setRebuilding(true);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                final Specification<Item> all = (root, query, criteriaBuilder) -> null;
+                try (Stream<Item> items = itemRepository.streamAll(all, Sort.by(Item_.ID))) {
+                    items.map(itemMapper::toDto).forEach(this::indexLoaded);
+                }
+            });
+        } finally {
+            setRebuilding(false);
+        }
+        log.info("Item search indexes built with {} items in {} ms, suggest index uses ~{} MB", index.size(),
+                (System.nanoTime() - start) / 1_000_000, suggestIndex.estimatedBytes() / (1024 * 1024));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(final ItemChangedEvent event) {
+        if (event.after() != null) {
+            index(event.after());
+        } else {
+            remove(event.uuid());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChangeBatch(final ItemChangeBatchEvent event) {
+        event.changes().forEach(this::onItemChanged);
+    }
+
+    /**
+     * State of these items is not known from the event, it is read back from the table.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsChanged(final ItemsChangedEvent event) {
+        final List<UUID> uuids = new ArrayList<>(event.uuids());
+        for (int from = 0; from < uuids.size(); from += RELOAD_CHUNK_SIZE) {
+            final List<UUID> chunk = uuids.subList(from, Math.min(from + RELOAD_CHUNK_SIZE, uuids.size()));
+            final Set<UUID> missing = new HashSet<>(chunk);
+            for (ItemDto item : itemRepository.findByUuidIn(chunk, ItemDto.class)) {
+                index(item);
+                missing.remove(item.uuid());
+            }
+            missing.forEach(this::remove);
+        }
+    }
+
+    private void index(final ItemDto item) {
+        index.index(item);
+        suggestIndex.index(item);
+    }
+
+    private void remove(final UUID uuid) {
+        rebuildLock.lock();
+        try {
+            if (rebuilding) {
+                removedWhileRebuilding.add(uuid);
+            }
+            index.remove(uuid);
+            suggestIndex.remove(uuid);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void indexLoaded(final ItemDto item) {
+        // checked and indexed under the lock, so a removal can not slip in between
+        rebuildLock.lock();
+        try {
+            if (!removedWhileRebuilding.contains(item.uuid())) {
+                index(item);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void setRebuilding(final boolean rebuilding) {
+        rebuildLock.lock();
+        try {
+            this.rebuilding = rebuilding;
+            removedWhileRebuilding.clear();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package dev.toszek.tiara.items.catalog.internal.search;
+
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.dto.ItemSuggestionDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Item names sorted by their normalized form (lower case, no accents, single spaces), so names starting with a prefix
+ * are one range of the map. Lookups do not lock, writes of one item are serialized per uuid.
+ * <p>
+ * Memory is bounded by maximum number of entries, items over the limit are not suggested until others are removed.
+ * Limit is checked without locking, concurrent writes may overshoot it by the number of writing threads.
+ */
+@Slf4j
+@Component
+public class ItemSuggestIndex implements MeterBinder {
+    // rough per entry cost of map nodes, keys and uuid with compressed oops, strings are counted separately
+    static final int ENTRY_OVERHEAD_BYTES = 200;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final UUID MIN_UUID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::normalized).thenComparing(Key::uuid);
+
+    private final ConcurrentSkipListMap<Key, String> names = new ConcurrentSkipListMap<>(KEY_ORDER);
+    private final Map<UUID, Indexed> indexed = new ConcurrentHashMap<>();
+    private final AtomicInteger entries = new AtomicInteger();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final int maxEntries;
+
+    public ItemSuggestIndex(@Value("${app.catalog.suggest.max-entries:2000000}") final int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Adds item or replaces its name. Older version than the indexed one is ignored.
+     */
+    public void index(final ItemDto item) {
+        final String normalized = normalize(item.name());
+        // strings equal to the name are not stored twice
+        final Key key = new Key(normalized.equals(item.name()) ? item.name() : normalized, item.uuid());
+        indexed.compute(item.uuid(), (uuid, current) -> {
+            if (current != null) {
+                if (current.version() > item.version()) {
+                    return current;
+                }
+                delete(current.key());
+            } else if (entries.get() >= maxEntries) {
+                if (rejected.getAndIncrement() == 0) {
+                    log.warn("Item suggest index is full with {} entries, new items are not suggested", maxEntries);
+                }
+                return null;
+            }
+            if (current == null) {
+                entries.incrementAndGet();
+            }
+            names.put(key, item.name());
+            estimatedBytes.addAndGet(bytesOf(key, item.name()));
+            return new Indexed(key, item.version());
+        });
+    }
+
+    public void remove(final UUID uuid) {
+        indexed.computeIfPresent(uuid, (key, current) -> {
+            delete(current.key());
+            entries.decrementAndGet();
+            return null;
+        });
+    }
+
+    public void clear() {
+        indexed.clear();
+        names.clear();
+        entries.set(0);
+        estimatedBytes.set(0);
+    }
+
+    public int size() {
+        return entries.get();
+    }
+
+    public long estimatedBytes() {
+        return estimatedBytes.get();
+    }
+
+    /**
+     * Items which name starts with the prefix, in alphabetical order of normalized names, at most
+     * {@link ItemCatalogApi#MAX_SUGGESTIONS}. Blank prefix matches nothing.
+     */
+    public List<ItemSuggestionDto> suggest(final String prefix, final int limit) {
+        final String normalizedPrefix = normalize(prefix);
+        final int maxSuggestions = Math.min(limit, ItemCatalogApi.MAX_SUGGESTIONS);
+        if (normalizedPrefix.isBlank() || maxSuggestions < 1) {
+            return List.of();
+        }
+        final List<ItemSuggestionDto> suggestions = new ArrayList<>(maxSuggestions);
+        final NavigableMap<Key, String> tail = names.tailMap(new Key(normalizedPrefix, MIN_UUID), true);
+        for (Map.Entry<Key, String> entry : tail.entrySet()) {
+            if (suggestions.size() >= maxSuggestions || !entry.getKey().normalized().startsWith(normalizedPrefix)) {
+                break;
+            }
+            suggestions.add(new ItemSuggestionDto(entry.getKey().uuid(), entry.getValue()));
+        }
+        return suggestions;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("items.suggest.entries", entries, AtomicInteger::get)
+                .description("Items in the name suggest index")
+                .register(registry);
+        Gauge.builder("items.suggest.memory", estimatedBytes, AtomicLong::get)
+                .description("Estimated heap used by the name suggest index")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("items.suggest.max.entries", () -> maxEntries)
+                .description("Limit of items in the name suggest index")
+                .register(registry);
+        Gauge.builder("items.suggest.rejected", rejected, AtomicLong::get)
+                .description("Item writes not indexed because the suggest index was full")
+                .register(registry);
+    }
+
+    static String normalize(final String text) {
+        return WHITESPACE.matcher(ItemTokenizer.normalize(text).strip()).replaceAll(" ");
+    }
+
+    private void delete(final Key key) {
+        final String name = names.remove(key);
+        if (name != null) {
+            estimatedBytes.addAndGet(-bytesOf(key, name));
+        }
+    }
+
+    private static long bytesOf(final Key key, final String name) {
+        // upper bound, latin1 strings need only a byte per char, 40 bytes of String and array headers
+        final long nameBytes = 40L + name.length() * 2L;
+        return ENTRY_OVERHEAD_BYTES + nameBytes + (key.normalized() == name ? 0 : 40L + key.normalized().length() * 2L);
+    }
+
+    private record Key(String normalized, UUID uuid) {
+    }
+
+    private record Indexed(Key key, int version) {
+    }
+}
@@ -0,0 +1,49 @@
+package dev.toszek.tiara.items.catalog.internal.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into lower case terms on anything that is not a letter or digit, accents are removed,
+ * so "Crème Brûlée" and "creme brulee" give the same terms.
+ */
+final class ItemTokenizer {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private ItemTokenizer() {
+    }
+
+    static List<String> tokenize(final String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        final String normalized = normalize(text);
+        final List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < normalized.length(); i++) {
+            if (Character.isLetterOrDigit(normalized.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                terms.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            terms.add(normalized.substring(start));
+        }
+        return terms;
+    }
+
+    /**
+     * Lower case text without accents, length and positions of letters may differ from the original.
+     */
+    static String normalize(final String text) {
+        return COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,49 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Tag;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.actuate.metrics.cache.CacheMetricsRegistrar;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(CacheConfig.CacheSpecsProperties.class)
+class CacheConfig {
+
+    /**
+     * Caches listed under app.cache.specs get their own caffeine spec, others use spring.cache.caffeine.spec.
+     */
+    @Bean
+    CacheManagerCustomizer<CaffeineCacheManager> caffeineCacheSpecsCustomizer(final CacheSpecsProperties properties) {
+        return cacheManager -> properties.specs()
+                .forEach((cacheName, spec) -> cacheManager.registerCustomCache(cacheName, Caffeine.from(spec).build()));
+    }
+
+    /**
+     * Cache metrics are bound only to caches known when metrics are set up, caches registered later by their owners
+     * (itemsById, missingItemsById) are bound once all beans exist. Binding a cache again reuses its meters.
+     */
+    @Bean
+    SmartInitializingSingleton cacheMetricsBinder(final ObjectProvider<CacheMetricsRegistrar> cacheMetricsRegistrar,
+                                                  final CacheManager cacheManager) {
+        return () -> cacheMetricsRegistrar.ifAvailable(registrar -> cacheManager.getCacheNames()
+                .forEach(cacheName -> registrar.bindCacheToRegistry(cacheManager.getCache(cacheName),
+                        Tag.of("cache.manager", "cacheManager"))));
+    }
+
+    @ConfigurationProperties("app.cache")
+    record CacheSpecsProperties(Map<String, String> specs) {
+        CacheSpecsProperties {
+            specs = specs == null ? Map.of() : specs;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import dev.toszek.tiara.shared.sql.SqlStatementListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+class DataSourceConfig {
+
+    /**
+     * Wraps the pool, so the number of threads using JDBC at once is bounded independently of request threads,
+     * which are unbounded in virtual thread mode, and statements are counted per request and API call.
+     */
+    @Bean
+    static BeanPostProcessor boundedConnectionDataSourcePostProcessor(
+            @Value("${app.datasource.connection-permits:${spring.datasource.hikari.maximum-pool-size:10}}") final int permits,
+            @Value("${app.datasource.acquire-timeout:PT5S}") final Duration acquireTimeout,
+            @Value("${app.datasource.slow-query-threshold:PT0.5S}") final Duration slowQueryThreshold) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementAccountingDataSource)) {
+                    return new StatementAccountingDataSource(new BoundedConnectionDataSource(dataSource, permits, acquireTimeout),
+                            slowQueryThreshold);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder boundedConnectionDataSourceMetrics(final DataSource dataSource) throws SQLException {
+        final BoundedConnectionDataSource bounded = dataSource.unwrap(BoundedConnectionDataSource.class);
+        return registry -> {
+            Gauge.builder("jdbc.connections.permits.active", bounded, BoundedConnectionDataSource::activeConnections)
+                    .description("Threads holding a database connection")
+                    .register(registry);
+            Gauge.builder("jdbc.connections.permits.pending", bounded, BoundedConnectionDataSource::pendingThreads)
+                    .description("Threads waiting for a database connection")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    SqlStatementListener sqlStatementMetrics(final MeterRegistry meterRegistry) {
+        return new SqlStatementMetrics(meterRegistry);
+    }
+
+    @Bean
+    FilterRegistrationBean<SqlStatementAccountingFilter> sqlStatementAccountingFilter(final List<SqlStatementListener> listeners) {
+        final FilterRegistrationBean<SqlStatementAccountingFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatementAccountingFilter(listeners));
+        // outermost, statements of security and error handling count as well
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,9 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@EnableScheduling
+@Configuration
+class SchedulingConfig {
+}
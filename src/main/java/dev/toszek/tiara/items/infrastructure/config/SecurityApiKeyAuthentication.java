@@ -5,13 +5,17 @@ import org.springframework.security.core.GrantedAuthority;
 
 import java.util.Collection;
 
+/**
+ * Authenticated API client, built once per key by {@link SecurityApiKeyRegistry} and shared by all its requests,
+ * so it can not be changed.
+ */
 public class SecurityApiKeyAuthentication extends AbstractAuthenticationToken {
-    private final String apiKey;
+    private final String clientId;
 
-    public SecurityApiKeyAuthentication(String apiKey, Collection<? extends GrantedAuthority> authorities) {
+    public SecurityApiKeyAuthentication(String clientId, Collection<? extends GrantedAuthority> authorities) {
         super(authorities);
-        this.apiKey = apiKey;
-        setAuthenticated(true);
+        this.clientId = clientId;
+        super.setAuthenticated(true);
     }
 
     @Override
@@ -21,6 +25,16 @@ public class SecurityApiKeyAuthentication extends AbstractAuthenticationToken {
 
     @Override
     public Object getPrincipal() {
-        return apiKey;
+        return clientId;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        throw new UnsupportedOperationException("API key authentication is shared between requests");
+    }
+
+    @Override
+    public void setDetails(Object details) {
+        throw new UnsupportedOperationException("API key authentication is shared between requests");
     }
 }
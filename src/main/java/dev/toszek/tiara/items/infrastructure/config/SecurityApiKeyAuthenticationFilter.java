@@ -1,23 +1,27 @@
 package dev.toszek.tiara.items.infrastructure.config;
 
+import dev.toszek.tiara.shared.timing.RequestPhase;
+import dev.toszek.tiara.shared.timing.RequestTiming;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 class SecurityApiKeyAuthenticationFilter extends BasicAuthenticationFilter {
-     private final String apiKey;
+    private static final byte[] INVALID_API_KEY_BODY = "{\"error\":\"Invalid api key\"}".getBytes(StandardCharsets.UTF_8);
 
-    public SecurityApiKeyAuthenticationFilter(final AuthenticationManager authenticationManager, final String apiKey) {
+    private final SecurityApiKeyRegistry apiKeyRegistry;
+
+    public SecurityApiKeyAuthenticationFilter(final AuthenticationManager authenticationManager, final SecurityApiKeyRegistry apiKeyRegistry) {
         super(authenticationManager);
-        this.apiKey = apiKey;
+        this.apiKeyRegistry = apiKeyRegistry;
     }
 
     @Override
@@ -25,22 +29,31 @@ class SecurityApiKeyAuthenticationFilter extends BasicAuthenticationFilter {
                                     HttpServletResponse res,
                                     FilterChain chain) throws IOException, ServletException {
         String header = req.getHeader(SecurityApiKeyConstants.API_KEY_HEADER);
-        if (header == null && !req.getRequestURI().startsWith("/api/")) {
+        if (header == null && !isProtected(req.getRequestURI())) {
             chain.doFilter(req, res);
             return;
         }
 
-        try {
-            if (header == null || !header.equals(apiKey)) {
-                // api path but not header or wrong api key
-                throw new BadCredentialsException("Invalid %s".formatted(SecurityApiKeyConstants.API_KEY_HEADER));
-            }
-            SecurityContextHolder.getContext().setAuthentication(new SecurityApiKeyAuthentication(apiKey, AuthorityUtils.NO_AUTHORITIES));
-            chain.doFilter(req, res);
-        } catch (BadCredentialsException e) {
-            res.setContentType("application/json");
+        final long start = RequestTiming.start();
+        final SecurityApiKeyAuthentication authentication = header != null ? apiKeyRegistry.authenticate(header) : null;
+        if (authentication != null) {
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+        RequestTiming.stop(RequestPhase.AUTH, start);
+
+        if (authentication == null) {
+            // protected path but not header or wrong api key
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
             res.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            res.getWriter().write("{\"error\":\"Invalid api key\"}");
+            res.setContentLength(INVALID_API_KEY_BODY.length);
+            res.getOutputStream().write(INVALID_API_KEY_BODY);
+            return;
         }
+        chain.doFilter(req, res);
+    }
+
+    private static boolean isProtected(final String uri) {
+        // metrics and other management endpoints expose internals, only health is public
+        return uri.startsWith("/api/") || uri.startsWith("/actuator/") && !uri.startsWith("/actuator/health");
     }
 }
@@ -0,0 +1,317 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * API keys of all clients, stored and compared only as SHA-256 hashes. Keys come from {@code app.security.apiKey}
+ * (client {@value #DEFAULT_CLIENT}), from {@code app.security.api-keys.file} with {@code client-id:sha256-hex} lines
+ * and from enabled rows of api_key table, all reloaded periodically, so keys can be added and revoked without restart.
+ * <p>
+ * Lookup hashes the presented key with a pooled digest and buffers and probes an open addressing table by hash
+ * prefix, the full hash is compared in constant time. Every key has its authentication built once, so a request
+ * with a valid key allocates nothing here. The pool is not a thread local, with virtual threads every request
+ * runs on a new thread and would build its own digest.
+ */
+@Slf4j
+@Component
+class SecurityApiKeyRegistry {
+    static final String DEFAULT_CLIENT = "default";
+    private static final String SELECT_SQL = "SELECT client_id, key_hash FROM api_key WHERE enabled = TRUE";
+    private static final int HASH_LENGTH = 32;
+    private static final int MAX_KEY_LENGTH = 256;
+    private static final HasherPool HASHERS = new HasherPool(Runtime.getRuntime().availableProcessors() * 2);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String defaultApiKey;
+    private final Path keysFile;
+    private volatile Keys keys;
+    // not a monitor, reload reads a file and queries the database, a virtual thread would pin its carrier thread
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    // last successfully read, used while file can not be read
+    private Map<String, byte[]> fileHashes = Map.of();
+
+    @Autowired
+    SecurityApiKeyRegistry(final JdbcTemplate jdbcTemplate,
+                           @Value("${app.security.apiKey:LetMeIn}") final String defaultApiKey,
+                           @Value("${app.security.api-keys.file:}") final String keysFile) {
+        this(jdbcTemplate, defaultApiKey, keysFile.isBlank() ? null : Path.of(keysFile));
+    }
+
+    /**
+     * @param jdbcTemplate null when keys are not read from database
+     * @param keysFile     null when keys are not read from file
+     */
+    SecurityApiKeyRegistry(final JdbcTemplate jdbcTemplate, final String defaultApiKey, final Path keysFile) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultApiKey = defaultApiKey;
+        this.keysFile = keysFile;
+        reload();
+    }
+
+    /**
+     * Authentication of the client owning the key, the same instance for every request, null for unknown key.
+     */
+    SecurityApiKeyAuthentication authenticate(final String apiKey) {
+        final Hasher hasher = HASHERS.acquire();
+        try {
+            final byte[] hash = hasher.hash(apiKey);
+            return hash == null ? null : keys.find(hash);
+        } finally {
+            HASHERS.release(hasher);
+        }
+    }
+
+    int size() {
+        return keys.size();
+    }
+
+    @Scheduled(initialDelayString = "${app.security.api-keys.reload-interval-ms:30000}",
+            fixedDelayString = "${app.security.api-keys.reload-interval-ms:30000}")
+    public void reload() {
+        reloadLock.lock();
+        try {
+            reloadUnderLock();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void reloadUnderLock() {
+        final Map<String, byte[]> hashes = new LinkedHashMap<>();
+        if (defaultApiKey != null && !defaultApiKey.isBlank()) {
+            hashes.put(DEFAULT_CLIENT, sha256().digest(defaultApiKey.getBytes(StandardCharsets.UTF_8)));
+        }
+        if (keysFile != null) {
+            fileHashes = readFile();
+            hashes.putAll(fileHashes);
+        }
+        if (jdbcTemplate != null) {
+            jdbcTemplate.query(SELECT_SQL, resultSet -> {
+                putHash(hashes, resultSet.getString(1), resultSet.getString(2));
+            });
+        }
+        final Keys reloaded = new Keys(hashes);
+        if (keys == null || keys.size() != reloaded.size()) {
+            log.info("{} API keys registered", reloaded.size());
+        }
+        keys = reloaded;
+    }
+
+    private Map<String, byte[]> readFile() {
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines(keysFile);
+        } catch (IOException e) {
+            if (keys == null) {
+                throw new UncheckedIOException("Can not read API keys from " + keysFile, e);
+            }
+            log.warn("Can not read API keys from {}, keeping previous ones", keysFile, e);
+            return fileHashes;
+        }
+        final Map<String, byte[]> hashes = new LinkedHashMap<>();
+        for (String line : lines) {
+            final String trimmed = line.strip();
+            final int separator = trimmed.indexOf(':');
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            if (separator <= 0) {
+                log.warn("Ignoring API key line without client-id:hash format in {}", keysFile);
+                continue;
+            }
+            putHash(hashes, trimmed.substring(0, separator).strip(), trimmed.substring(separator + 1).strip());
+        }
+        return hashes;
+    }
+
+    private static void putHash(final Map<String, byte[]> hashes, final String clientId, final String hexHash) {
+        final byte[] hash;
+        try {
+            hash = HexFormat.of().parseHex(hexHash);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring API key of client {}, hash is not hex", clientId);
+            return;
+        }
+        if (hash.length != HASH_LENGTH) {
+            log.warn("Ignoring API key of client {}, hash is not SHA-256", clientId);
+            return;
+        }
+        hashes.put(clientId, hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+
+    /**
+     * Immutable open addressing table, slot is chosen by first 8 bytes of the hash, which are uniformly distributed.
+     */
+    private static final class Keys {
+        private final long[] prefixes;
+        private final byte[][] hashes;
+        private final String[] clientIds;
+        private final SecurityApiKeyAuthentication[] authentications;
+        private final int mask;
+        private final int size;
+
+        private Keys(final Map<String, byte[]> hashesByClient) {
+            final int capacity = Integer.highestOneBit(Math.max(hashesByClient.size(), 1) * 2) * 2;
+            this.prefixes = new long[capacity];
+            this.hashes = new byte[capacity][];
+            this.clientIds = new String[capacity];
+            this.authentications = new SecurityApiKeyAuthentication[capacity];
+            this.mask = capacity - 1;
+            int added = 0;
+            for (Map.Entry<String, byte[]> entry : hashesByClient.entrySet()) {
+                final byte[] hash = entry.getValue();
+                final long prefix = prefix(hash);
+                int slot = slot(prefix);
+                while (hashes[slot] != null && !MessageDigest.isEqual(hashes[slot], hash)) {
+                    slot = (slot + 1) & mask;
+                }
+                if (hashes[slot] != null) {
+                    log.warn("API key of client {} is the same as key of client {}, it belongs to {}",
+                            entry.getKey(), clientIds[slot], entry.getKey());
+                } else {
+                    added++;
+                }
+                prefixes[slot] = prefix;
+                hashes[slot] = hash;
+                clientIds[slot] = entry.getKey();
+                authentications[slot] = new SecurityApiKeyAuthentication(entry.getKey(), AuthorityUtils.NO_AUTHORITIES);
+            }
+            this.size = added;
+        }
+
+        private SecurityApiKeyAuthentication find(final byte[] hash) {
+            final long prefix = prefix(hash);
+            for (int slot = slot(prefix); hashes[slot] != null; slot = (slot + 1) & mask) {
+                if (prefixes[slot] == prefix && MessageDigest.isEqual(hashes[slot], hash)) {
+                    return authentications[slot];
+                }
+            }
+            return null;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private int slot(final long prefix) {
+            return (int) (prefix ^ (prefix >>> 32)) & mask;
+        }
+
+        private static long prefix(final byte[] hash) {
+            long prefix = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                prefix = (prefix << 8) | (hash[i] & 0xFF);
+            }
+            return prefix;
+        }
+    }
+
+    /**
+     * Lock-free pool, hashing takes a few microseconds and does not block, so about one hasher per core is in use
+     * at once. A thread finding no free hasher builds a new one, which is dropped when the pool is full.
+     */
+    private static final class HasherPool {
+        private final AtomicReferenceArray<Hasher> hashers;
+
+        private HasherPool(final int size) {
+            this.hashers = new AtomicReferenceArray<>(size);
+        }
+
+        private Hasher acquire() {
+            final int size = hashers.length();
+            final int start = start(size);
+            for (int i = 0; i < size; i++) {
+                final int slot = (start + i) % size;
+                final Hasher hasher = hashers.get(slot);
+                if (hasher != null && hashers.compareAndSet(slot, hasher, null)) {
+                    return hasher;
+                }
+            }
+            return new Hasher();
+        }
+
+        private void release(final Hasher hasher) {
+            final int size = hashers.length();
+            final int start = start(size);
+            for (int i = 0; i < size; i++) {
+                final int slot = (start + i) % size;
+                if (hashers.get(slot) == null && hashers.compareAndSet(slot, null, hasher)) {
+                    return;
+                }
+            }
+        }
+
+        // threads start probing at different slots, so they rarely contend for the same one
+        private static int start(final int size) {
+            return (int) (Thread.currentThread().threadId() % size);
+        }
+    }
+
+    /**
+     * Reusable digest and buffers, used by one thread at a time.
+     */
+    private static final class Hasher {
+        private final MessageDigest digest = sha256();
+        private final byte[] key = new byte[MAX_KEY_LENGTH];
+        private final byte[] hash = new byte[HASH_LENGTH];
+
+        /**
+         * @return hash in buffer reused by next call, null for key that can not be valid
+         */
+        private byte[] hash(final String apiKey) {
+            final int length = apiKey.length();
+            if (length == 0 || length > MAX_KEY_LENGTH) {
+                return null;
+            }
+            for (int i = 0; i < length; i++) {
+                final char c = apiKey.charAt(i);
+                if (c > 0x7F) {
+                    // rare non ascii key, encoded as usual
+                    digest.update(apiKey.getBytes(StandardCharsets.UTF_8));
+                    return digest(hash);
+                }
+                key[i] = (byte) c;
+            }
+            digest.update(key, 0, length);
+            return digest(hash);
+        }
+
+        private byte[] digest(final byte[] into) {
+            try {
+                digest.digest(into, 0, HASH_LENGTH);
+                return into;
+            } catch (DigestException e) {
+                throw new IllegalStateException("SHA-256 digest does not fit its buffer", e);
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package dev.toszek.tiara.items.infrastructure.config;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
@@ -26,18 +27,21 @@ import java.util.List;
 @RequiredArgsConstructor
 @EnableWebSecurity
 @EnableMethodSecurity
+@EnableConfigurationProperties(SecurityRateLimiter.Properties.class)
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationManager authenticationManager, CorsConfigurationSource corsConfigurationSource, @Value("${app.security.apiKey:LetMeIn}") String apiKey) throws Exception {
+    SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationManager authenticationManager, CorsConfigurationSource corsConfigurationSource, SecurityApiKeyRegistry apiKeyRegistry, SecurityRateLimiter rateLimiter) throws Exception {
         return http
                 .cors(httpSecurityCorsConfigurer -> httpSecurityCorsConfigurer.configurationSource(corsConfigurationSource))
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/**").authenticated()
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers("/api/**", "/actuator/**").authenticated()
                         .anyRequest().permitAll())
-                .addFilterBefore(new SecurityApiKeyAuthenticationFilter(authenticationManager, apiKey), UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(new SecurityApiKeyAuthenticationFilter(authenticationManager, apiKeyRegistry), UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(new SecurityRateLimitFilter(rateLimiter), SecurityApiKeyAuthenticationFilter.class)
                 .build();
     }
 
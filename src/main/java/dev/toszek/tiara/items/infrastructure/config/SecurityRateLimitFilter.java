@@ -0,0 +1,76 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import dev.toszek.tiara.items.infrastructure.config.SecurityRateLimiter.RequestClass;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Applies {@link SecurityRateLimiter} to API requests authenticated by API key, over limit requests get 429
+ * with Retry-After in whole seconds.
+ */
+class SecurityRateLimitFilter extends OncePerRequestFilter {
+    private static final byte[] TOO_MANY_REQUESTS_BODY = "{\"error\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8);
+    private static final String[] BULK_PATHS = {"/api/items/bulk", "/api/items/import", "/api/items/export"};
+    // posted only because uuids would not fit in url
+    private static final String[] READ_PATHS = {"/api/items/batch-get"};
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final SecurityRateLimiter rateLimiter;
+
+    SecurityRateLimitFilter(final SecurityRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain chain) throws ServletException, IOException {
+        if (!(SecurityContextHolder.getContext().getAuthentication() instanceof SecurityApiKeyAuthentication authentication)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        final long wait = rateLimiter.tryAcquire(authentication.getName(), classify(request));
+        if (wait > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString((wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(TOO_MANY_REQUESTS_BODY.length);
+            response.getOutputStream().write(TOO_MANY_REQUESTS_BODY);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    static RequestClass classify(final HttpServletRequest request) {
+        final String uri = request.getRequestURI();
+        for (String bulkPath : BULK_PATHS) {
+            if (uri.startsWith(bulkPath)) {
+                return RequestClass.BULK;
+            }
+        }
+        for (String readPath : READ_PATHS) {
+            if (uri.startsWith(readPath)) {
+                return RequestClass.READ;
+            }
+        }
+        return switch (request.getMethod()) {
+            case "GET", "HEAD", "OPTIONS" -> RequestClass.READ;
+            default -> RequestClass.WRITE;
+        };
+    }
+}
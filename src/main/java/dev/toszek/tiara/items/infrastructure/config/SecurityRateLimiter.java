@@ -0,0 +1,175 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Request rate limits per API client, separate for reads, writes and bulk operations. Every limit is a token bucket
+ * kept as a single atomic theoretical arrival time (GCRA): request is allowed when the bucket would not overflow,
+ * and it moves the time forward by one emission interval with compare-and-set, no locks are taken.
+ * <p>
+ * State of at most {@code maxClients} clients is kept, clients idle for {@code idleExpiry} are dropped, by then
+ * their buckets are full again anyway. Allowed and limited requests of every kept client are counted
+ * as api.client.requests metric.
+ */
+@Component
+class SecurityRateLimiter {
+    private final Properties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private final Cache<String, ClientLimits> clients;
+    private final Function<String, ClientLimits> newClient = this::newClient;
+
+    @Autowired
+    SecurityRateLimiter(final Properties properties, final MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    SecurityRateLimiter(final Properties properties, final MeterRegistry meterRegistry, final LongSupplier nanoClock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(properties.maxClients())
+                .expireAfterAccess(properties.idleExpiry())
+                .executor(Runnable::run)
+                // runs within the atomic removal of the entry, so a client created again registers its meters only after
+                // the old ones are gone, unlike with removal listener
+                .<String, ClientLimits>evictionListener((clientId, limits, cause) -> {
+                    if (limits != null) {
+                        limits.meters.forEach(meterRegistry::remove);
+                    }
+                })
+                .build();
+    }
+
+    boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * @return 0 when request is allowed, otherwise nanoseconds until the same request would be allowed
+     */
+    long tryAcquire(final String clientId, final RequestClass requestClass) {
+        final ClientLimits limits = clients.get(clientId, newClient);
+        final long wait = limits.buckets[requestClass.ordinal()].tryAcquire(nanoClock.getAsLong());
+        (wait == 0 ? limits.allowed : limits.limited)[requestClass.ordinal()].increment();
+        return wait;
+    }
+
+    long trackedClients() {
+        clients.cleanUp();
+        return clients.estimatedSize();
+    }
+
+    private ClientLimits newClient(final String clientId) {
+        final ClientLimits limits = new ClientLimits(nanoClock.getAsLong());
+        for (RequestClass requestClass : RequestClass.values()) {
+            final String classTag = requestClass.name().toLowerCase(Locale.ROOT);
+            limits.meters.add(counter(clientId, classTag, "allowed", limits.allowed[requestClass.ordinal()]));
+            limits.meters.add(counter(clientId, classTag, "limited", limits.limited[requestClass.ordinal()]));
+        }
+        return limits;
+    }
+
+    private Meter counter(final String clientId, final String requestClass, final String outcome, final LongAdder count) {
+        return FunctionCounter.builder("api.client.requests", count, LongAdder::sum)
+                .description("Requests per API client, limited ones were answered with 429")
+                .tags("client", clientId, "class", requestClass, "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    enum RequestClass {
+        READ,
+        WRITE,
+        BULK
+    }
+
+    private final class ClientLimits {
+        private final Bucket[] buckets = new Bucket[RequestClass.values().length];
+        private final LongAdder[] allowed = new LongAdder[RequestClass.values().length];
+        private final LongAdder[] limited = new LongAdder[RequestClass.values().length];
+        private final List<Meter> meters = new ArrayList<>();
+
+        private ClientLimits(final long now) {
+            for (RequestClass requestClass : RequestClass.values()) {
+                buckets[requestClass.ordinal()] = new Bucket(properties.limit(requestClass), now);
+                allowed[requestClass.ordinal()] = new LongAdder();
+                limited[requestClass.ordinal()] = new LongAdder();
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private final long emissionIntervalNanos;
+        private final long burstNanos;
+        // time when bucket is empty again, if no more requests come
+        private final AtomicLong theoreticalArrival;
+
+        private Bucket(final Limit limit, final long now) {
+            this.emissionIntervalNanos = (long) (1_000_000_000L / limit.requestsPerSecond());
+            this.burstNanos = emissionIntervalNanos * limit.burst();
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        private long tryAcquire(final long now) {
+            while (true) {
+                final long arrival = theoreticalArrival.get();
+                final long next = (arrival - now < 0 ? now : arrival) + emissionIntervalNanos;
+                final long overflow = next - now - burstNanos;
+                if (overflow > 0) {
+                    return overflow;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param requestsPerSecond sustained rate
+     * @param burst             requests allowed at once after idle period
+     */
+    record Limit(double requestsPerSecond, int burst) {
+    }
+
+    @ConfigurationProperties("app.security.rate-limit")
+    record Properties(@DefaultValue("true") boolean enabled,
+                      Limit read,
+                      Limit write,
+                      Limit bulk,
+                      @DefaultValue("100000") long maxClients,
+                      @DefaultValue("PT10M") Duration idleExpiry) {
+
+        Properties {
+            read = read != null ? read : new Limit(100, 200);
+            write = write != null ? write : new Limit(20, 40);
+            bulk = bulk != null ? bulk : new Limit(1, 5);
+        }
+
+        Limit limit(final RequestClass requestClass) {
+            return switch (requestClass) {
+                case READ -> read;
+                case WRITE -> write;
+                case BULK -> bulk;
+            };
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.toszek.tiara.shared.timing.RequestPhase;
+import dev.toszek.tiara.shared.timing.RequestTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+@Configuration
+@EnableConfigurationProperties(ServerTimingConfig.ServerTimingProperties.class)
+@ConditionalOnProperty(value = "app.server-timing.enabled", havingValue = "true", matchIfMissing = true)
+class ServerTimingConfig {
+
+    @Bean
+    FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(final MeterRegistry meterRegistry,
+                                                                  final SecurityApiKeyRegistry apiKeyRegistry,
+                                                                  final ServerTimingProperties properties) {
+        final FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(
+                new ServerTimingFilter(meterRegistry, apiKeyRegistry, properties.sampleRate(), (int) properties.bufferLimit().toBytes()));
+        // before security, so API key check is timed
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * Replaces default JSON converter, serialization of response bodies is timed as a phase.
+     */
+    @Bean
+    MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(final ObjectMapper objectMapper) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(final Object object, final Type type, final HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                final long start = RequestTiming.start();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    RequestTiming.stop(RequestPhase.SERIALIZATION, start);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param sampleRate  share of requests timed without asking for it, from 0 to 1
+     * @param bufferLimit larger bodies of requests asking for the header are streamed before their timing is complete
+     */
+    @ConfigurationProperties("app.server-timing")
+    record ServerTimingProperties(@DefaultValue("0") double sampleRate,
+                                  @DefaultValue("256KB") DataSize bufferLimit) {
+    }
+}
@@ -0,0 +1,115 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import dev.toszek.tiara.shared.timing.RequestPhase;
+import dev.toszek.tiara.shared.timing.RequestTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times phases of requests asking for it with {@value #REQUEST_HEADER} header and a valid API key, and of a sample
+ * of other requests. Phases are recorded as http.server.phases timer per phase and path pattern, only requests
+ * that asked get them in Server-Timing header and have their response held back for it. Requests not chosen
+ * are passed on untouched.
+ */
+class ServerTimingFilter extends OncePerRequestFilter {
+    static final String REQUEST_HEADER = "X-Server-Timing";
+    static final String RESPONSE_HEADER = "Server-Timing";
+
+    private final MeterRegistry meterRegistry;
+    private final SecurityApiKeyRegistry apiKeyRegistry;
+    private final double sampleRate;
+    private final int bufferLimit;
+
+    ServerTimingFilter(final MeterRegistry meterRegistry, final SecurityApiKeyRegistry apiKeyRegistry,
+                       final double sampleRate, final int bufferLimit) {
+        this.meterRegistry = meterRegistry;
+        this.apiKeyRegistry = apiKeyRegistry;
+        this.sampleRate = sampleRate;
+        this.bufferLimit = bufferLimit;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain chain) throws ServletException, IOException {
+        final boolean requested = isRequestedByClient(request);
+        if (!requested && !isSampled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        final long start = System.nanoTime();
+        final RequestTiming timing = RequestTiming.begin();
+        try {
+            if (requested) {
+                final ServerTimingResponseWrapper timedResponse = new ServerTimingResponseWrapper(response, bufferLimit,
+                        () -> response.setHeader(RESPONSE_HEADER, header(timing, System.nanoTime() - start)));
+                chain.doFilter(request, timedResponse);
+                timedResponse.finish();
+            } else {
+                chain.doFilter(request, response);
+            }
+        } finally {
+            timing.end();
+            record(request, timing, System.nanoTime() - start);
+        }
+    }
+
+    private boolean isRequestedByClient(final HttpServletRequest request) {
+        // filter runs before security, phase breakdown is shown to known clients only
+        if (request.getHeader(REQUEST_HEADER) == null) {
+            return false;
+        }
+        final String apiKey = request.getHeader(SecurityApiKeyConstants.API_KEY_HEADER);
+        return apiKey != null && apiKeyRegistry.authenticate(apiKey) != null;
+    }
+
+    private boolean isSampled() {
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private static String header(final RequestTiming timing, final long totalNanos) {
+        final StringBuilder header = new StringBuilder();
+        for (RequestPhase phase : RequestPhase.values()) {
+            if (timing.count(phase) > 0) {
+                header.append(phase.metricName())
+                        .append(";desc=\"").append(phase.description()).append('"')
+                        .append(";dur=").append(millis(timing.nanos(phase)))
+                        .append(", ");
+            }
+        }
+        return header.append("total;dur=").append(millis(totalNanos)).toString();
+    }
+
+    private static String millis(final long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private void record(final HttpServletRequest request, final RequestTiming timing, final long totalNanos) {
+        final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        final String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        for (RequestPhase phase : RequestPhase.values()) {
+            if (timing.count(phase) > 0) {
+                timer(phase.metricName(), request.getMethod(), uri).record(timing.nanos(phase), TimeUnit.NANOSECONDS);
+            }
+        }
+        timer("total", request.getMethod(), uri).record(totalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(final String phase, final String method, final String uri) {
+        return Timer.builder("http.server.phases")
+                .description("Time spent per phase of sampled requests")
+                .tags("phase", phase, "method", method, "uri", uri)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,163 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.util.FastByteArrayOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * Holds back body of a timed response, so Server-Timing header can be added after the body, serialization included,
+ * is written. Bodies larger than {@code bufferLimit}, e.g. exports, are streamed as usual once the limit is reached,
+ * their header has phases finished until then.
+ */
+class ServerTimingResponseWrapper extends HttpServletResponseWrapper {
+    private final int bufferLimit;
+    private final Runnable beforeCommit;
+    private final FastByteArrayOutputStream buffer = new FastByteArrayOutputStream();
+    private boolean streaming;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    ServerTimingResponseWrapper(final HttpServletResponse response, final int bufferLimit, final Runnable beforeCommit) {
+        super(response);
+        this.bufferLimit = bufferLimit;
+        this.beforeCommit = beforeCommit;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (outputStream == null) {
+            outputStream = new BufferingOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (streaming) {
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void sendError(final int sc, final String msg) throws IOException {
+        commit();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(final int sc) throws IOException {
+        commit();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(final String location) throws IOException {
+        commit();
+        super.sendRedirect(location);
+    }
+
+    @Override
+    public void resetBuffer() {
+        buffer.reset();
+        super.resetBuffer();
+    }
+
+    @Override
+    public void reset() {
+        buffer.reset();
+        super.reset();
+    }
+
+    /**
+     * Adds the header and writes held back body, unless it was already streamed.
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (!streaming) {
+            streamFromNowOn();
+        }
+    }
+
+    private void commit() {
+        if (!streaming) {
+            streaming = true;
+            buffer.reset();
+            beforeCommit.run();
+        }
+    }
+
+    private void streamFromNowOn() throws IOException {
+        streaming = true;
+        beforeCommit.run();
+        if (buffer.size() > 0) {
+            buffer.writeTo(super.getOutputStream());
+            buffer.reset();
+        }
+    }
+
+    private final class BufferingOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (streaming) {
+                ServerTimingResponseWrapper.super.getOutputStream().write(b);
+                return;
+            }
+            buffer.write(b);
+            overflowIfNeeded();
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (streaming) {
+                ServerTimingResponseWrapper.super.getOutputStream().write(b, off, len);
+                return;
+            }
+            buffer.write(b, off, len);
+            overflowIfNeeded();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // flushing would commit the response before the header is set
+            if (streaming) {
+                ServerTimingResponseWrapper.super.getOutputStream().flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+            throw new UnsupportedOperationException("Timed responses are written synchronously");
+        }
+
+        private void overflowIfNeeded() throws IOException {
+            if (buffer.size() > bufferLimit) {
+                streamFromNowOn();
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import dev.toszek.tiara.shared.sql.SqlStatementListener;
+import dev.toszek.tiara.shared.sql.SqlStatementSource;
+import dev.toszek.tiara.shared.sql.SqlStatementTracker;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Counts statements issued while serving a request, reported under method and matched path pattern, so requests
+ * to different items add up.
+ */
+class SqlStatementAccountingFilter extends OncePerRequestFilter {
+    private final List<SqlStatementListener> listeners;
+
+    SqlStatementAccountingFilter(final List<SqlStatementListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain chain) throws ServletException, IOException {
+        final SqlStatementTracker.Scope scope = SqlStatementTracker.open();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            scope.close();
+            final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            final String name = request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+            listeners.forEach(listener -> listener.completed(SqlStatementSource.HTTP_REQUEST, name, scope.stats()));
+        }
+    }
+}
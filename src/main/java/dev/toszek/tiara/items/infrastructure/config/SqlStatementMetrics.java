@@ -0,0 +1,45 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import dev.toszek.tiara.shared.sql.SqlStatementListener;
+import dev.toszek.tiara.shared.sql.SqlStatementSource;
+import dev.toszek.tiara.shared.sql.SqlStatementStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statements, rows and JDBC time per request pattern and per API method, as sql.statements, sql.rows and sql.time.
+ */
+@Slf4j
+class SqlStatementMetrics implements SqlStatementListener {
+    private final MeterRegistry registry;
+
+    SqlStatementMetrics(final MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void completed(final SqlStatementSource source, final String name, final SqlStatementStats stats) {
+        final String sourceTag = source.name().toLowerCase(Locale.ROOT);
+        DistributionSummary.builder("sql.statements")
+                .description("JDBC statements per request or API call")
+                .tags("source", sourceTag, "name", name)
+                .register(registry)
+                .record(stats.statements());
+        DistributionSummary.builder("sql.rows")
+                .description("Rows read or changed per request or API call")
+                .tags("source", sourceTag, "name", name)
+                .register(registry)
+                .record(stats.rows());
+        Timer.builder("sql.time")
+                .description("JDBC time per request or API call")
+                .tags("source", sourceTag, "name", name)
+                .register(registry)
+                .record(stats.jdbcNanos(), TimeUnit.NANOSECONDS);
+        log.debug("{} {}: {}", sourceTag, name, stats);
+    }
+}
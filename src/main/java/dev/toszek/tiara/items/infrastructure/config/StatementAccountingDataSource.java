@@ -0,0 +1,176 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import dev.toszek.tiara.shared.sql.SqlStatementTracker;
+import dev.toszek.tiara.shared.timing.RequestPhase;
+import dev.toszek.tiara.shared.timing.RequestTiming;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Counts statements, rows and JDBC time into {@link SqlStatementTracker} scopes of the calling thread and logs statements
+ * slower than {@code slowQueryThreshold} with their bind parameters. Rows are counted as result sets are read,
+ * result sets are wrapped only when a scope is open, so background jobs do not pay for counting.
+ */
+@Slf4j
+class StatementAccountingDataSource extends DelegatingDataSource {
+    private static final int MAX_LOGGED_BIND_LENGTH = 200;
+
+    private final long slowQueryThresholdNanos;
+
+    StatementAccountingDataSource(final DataSource targetDataSource, final Duration slowQueryThreshold) {
+        super(targetDataSource);
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return accounting(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return accounting(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection accounting(final Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    final Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement) {
+                        // prepareStatement and prepareCall take SQL as first argument, createStatement gets it on execute
+                        final String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{method.getReturnType()},
+                                new StatementHandler(statement, sql));
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String preparedSql;
+        private Object[] binds = new Object[0];
+        private int bindCount;
+        private int batchSize;
+        private String batchSql;
+
+        private StatementHandler(final Statement statement, final String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && statement instanceof PreparedStatement) {
+                bind(index, args[1]);
+            } else if ("clearParameters".equals(name)) {
+                Arrays.fill(binds, null);
+                bindCount = 0;
+            } else if ("addBatch".equals(name)) {
+                batchSize++;
+                batchSql = args != null && args.length == 1 ? (String) args[0] : batchSql;
+            } else if ("clearBatch".equals(name)) {
+                batchSize = 0;
+            } else if ("getResultSet".equals(name)) {
+                return counting((ResultSet) StatementAccountingDataSource.invoke(statement, method, args));
+            }
+            return StatementAccountingDataSource.invoke(statement, method, args);
+        }
+
+        private Object execute(final Method method, final Object[] args) throws Throwable {
+            final String sql = args != null && args.length > 0 && args[0] instanceof String s ? s
+                    : preparedSql != null ? preparedSql : batchSql;
+            final int executedBatch = method.getName().endsWith("Batch") ? batchSize : 0;
+            final long start = System.nanoTime();
+            final Object result = StatementAccountingDataSource.invoke(statement, method, args);
+            final long nanos = System.nanoTime() - start;
+            if (executedBatch > 0) {
+                batchSize = 0;
+            }
+            SqlStatementTracker.statement(sql, nanos, affectedRows(result));
+            RequestTiming.record(RequestPhase.DB, nanos);
+            if (nanos >= slowQueryThresholdNanos) {
+                logSlow(sql, nanos, executedBatch);
+            }
+            return result instanceof ResultSet resultSet ? counting(resultSet) : result;
+        }
+
+        private void bind(final int index, final Object value) {
+            if (index > binds.length) {
+                binds = Arrays.copyOf(binds, Math.max(index, binds.length * 2));
+            }
+            binds[index - 1] = value;
+            bindCount = Math.max(bindCount, index);
+        }
+
+        private void logSlow(final String sql, final long nanos, final int executedBatch) {
+            final String[] loggedBinds = new String[bindCount];
+            for (int i = 0; i < bindCount; i++) {
+                final String bind = String.valueOf(binds[i]);
+                loggedBinds[i] = bind.length() > MAX_LOGGED_BIND_LENGTH ? bind.substring(0, MAX_LOGGED_BIND_LENGTH) + "..." : bind;
+            }
+            if (executedBatch > 0) {
+                log.warn("Slow SQL batch of {} took {} ms: {} last binds {}", executedBatch, nanos / 1_000_000, sql, Arrays.toString(loggedBinds));
+            } else {
+                log.warn("Slow SQL took {} ms: {} binds {}", nanos / 1_000_000, sql, Arrays.toString(loggedBinds));
+            }
+        }
+    }
+
+    private static long affectedRows(final Object result) {
+        if (result instanceof Number count) {
+            return Math.max(count.longValue(), 0);
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(count, 0);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(count, 0);
+            }
+        }
+        return rows;
+    }
+
+    private static ResultSet counting(final ResultSet resultSet) {
+        if (resultSet == null || !SqlStatementTracker.isTracking()) {
+            return resultSet;
+        }
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    final Object result = invoke(resultSet, method, args);
+                    if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                        SqlStatementTracker.rows(1);
+                    }
+                    return result;
+                });
+    }
+}
@@ -0,0 +1,13 @@
+package dev.toszek.tiara.shared.sql;
+
+/**
+ * Told about statements of every finished HTTP request and catalog API call.
+ */
+@FunctionalInterface
+public interface SqlStatementListener {
+
+    /**
+     * @param name {@code GET /api/items/{itemUuid}} for request, method name for API call
+     */
+    void completed(SqlStatementSource source, String name, SqlStatementStats stats);
+}
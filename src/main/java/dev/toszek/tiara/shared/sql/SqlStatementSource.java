@@ -0,0 +1,6 @@
+package dev.toszek.tiara.shared.sql;
+
+public enum SqlStatementSource {
+    HTTP_REQUEST,
+    API_CALL
+}
@@ -0,0 +1,62 @@
+package dev.toszek.tiara.shared.sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Statements, rows and JDBC time of one {@link SqlStatementTracker.Scope}. Written only by the thread owning the scope,
+ * read once it is closed.
+ */
+public final class SqlStatementStats {
+    // enough to tell which statements were issued when an assertion fails, bounds memory of long scopes
+    static final int MAX_RECORDED_SQL = 100;
+
+    private final List<String> sql = new ArrayList<>();
+    private int statements;
+    private long rows;
+    private long jdbcNanos;
+
+    void statement(final String statementSql, final long nanos, final long affectedRows) {
+        statements++;
+        rows += affectedRows;
+        jdbcNanos += nanos;
+        if (sql.size() < MAX_RECORDED_SQL) {
+            sql.add(statementSql);
+        }
+    }
+
+    void rows(final long readRows) {
+        rows += readRows;
+    }
+
+    /**
+     * Executions sent to the database, batch counts as one.
+     */
+    public int statements() {
+        return statements;
+    }
+
+    /**
+     * Rows read from result sets plus rows changed by updates.
+     */
+    public long rows() {
+        return rows;
+    }
+
+    public long jdbcNanos() {
+        return jdbcNanos;
+    }
+
+    /**
+     * SQL of the first {@value #MAX_RECORDED_SQL} statements.
+     */
+    public List<String> sql() {
+        return Collections.unmodifiableList(sql);
+    }
+
+    @Override
+    public String toString() {
+        return "%d statements, %d rows, %.3f ms".formatted(statements, rows, jdbcNanos / 1_000_000.0);
+    }
+}
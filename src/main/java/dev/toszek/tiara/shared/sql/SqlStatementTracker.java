@@ -0,0 +1,56 @@
+package dev.toszek.tiara.shared.sql;
+
+/**
+ * Attributes JDBC statements to units of work of the current thread, e.g. HTTP request and catalog API call.
+ * Scopes nest, a statement is counted in every scope open on the thread. Statements outside any scope are not counted.
+ */
+public final class SqlStatementTracker {
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementTracker() {
+    }
+
+    public static Scope open() {
+        final Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static boolean isTracking() {
+        return CURRENT.get() != null;
+    }
+
+    public static void statement(final String sql, final long nanos, final long affectedRows) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.stats.statement(sql, nanos, affectedRows);
+        }
+    }
+
+    public static void rows(final long readRows) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.stats.rows(readRows);
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final Scope parent;
+        private final SqlStatementStats stats = new SqlStatementStats();
+
+        private Scope(final Scope parent) {
+            this.parent = parent;
+        }
+
+        public SqlStatementStats stats() {
+            return stats;
+        }
+
+        @Override
+        public void close() {
+            if (parent != null) {
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dev.toszek.tiara.shared.timing;
+
+/**
+ * Parts of request processing timed by {@link RequestTiming}, named as in the Server-Timing header.
+ * Phases may nest, e.g. cache includes statements issued while loading a miss.
+ */
+public enum RequestPhase {
+    AUTH("auth", "API key check"),
+    CACHE("cache", "Cache lookup, loading of misses included"),
+    SPECIFICATION("spec", "Query building from filter"),
+    DB("db", "JDBC statements"),
+    MAPPING("map", "Entity to DTO mapping"),
+    SERIALIZATION("json", "Response serialization");
+
+    private final String metricName;
+    private final String description;
+
+    RequestPhase(final String metricName, final String description) {
+        this.metricName = metricName;
+        this.description = description;
+    }
+
+    public String metricName() {
+        return metricName;
+    }
+
+    public String description() {
+        return description;
+    }
+}
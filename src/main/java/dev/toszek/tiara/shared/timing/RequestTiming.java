@@ -0,0 +1,73 @@
+package dev.toszek.tiara.shared.timing;
+
+/**
+ * Time spent per {@link RequestPhase} by the current thread, collected only for requests chosen for timing.
+ * Otherwise every measuring point costs one thread local lookup:
+ * <pre>{@code
+ * final long start = RequestTiming.start();
+ * try {
+ *     ...
+ * } finally {
+ *     RequestTiming.stop(RequestPhase.CACHE, start);
+ * }
+ * }</pre>
+ */
+public final class RequestTiming {
+    public static final long OFF = Long.MIN_VALUE;
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+
+    private final long[] nanos = new long[PHASES.length];
+    private final int[] counts = new int[PHASES.length];
+
+    private RequestTiming() {
+    }
+
+    /**
+     * Starts collecting phases of the current thread, until {@link #end()}.
+     */
+    public static RequestTiming begin() {
+        final RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    public void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return start to pass to {@link #stop}, {@link #OFF} when current thread is not timed
+     */
+    public static long start() {
+        return CURRENT.get() != null ? System.nanoTime() : OFF;
+    }
+
+    public static void stop(final RequestPhase phase, final long start) {
+        if (start != OFF) {
+            record(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Adds duration already measured by the caller.
+     */
+    public static void record(final RequestPhase phase, final long durationNanos) {
+        final RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.nanos[phase.ordinal()] += durationNanos;
+            timing.counts[phase.ordinal()]++;
+        }
+    }
+
+    public long nanos(final RequestPhase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * Number of times phase was entered, zero when request did not go through it.
+     */
+    public int count(final RequestPhase phase) {
+        return counts[phase.ordinal()];
+    }
+}
@@ -1,15 +1,24 @@
 package dev.toszek.tiara.items;
 
+import dev.toszek.tiara.items.catalog.internal.columnar.ItemColumnStore;
+import dev.toszek.tiara.items.catalog.internal.search.ItemSearchIndex;
+import dev.toszek.tiara.items.catalog.internal.search.ItemSuggestIndex;
 import dev.toszek.tiara.items.infrastructure.config.SecurityApiKeyConstants;
 import io.restassured.http.Header;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
 
 import java.util.List;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(SqlStatementCapture.class)
+// all tests share one API key, limits are tested with their own context
+@TestPropertySource(properties = "app.security.rate-limit.enabled=false")
 public abstract class BaseIntegrationTest {
     @LocalServerPort
     private Integer port;
@@ -17,6 +26,18 @@ public abstract class BaseIntegrationTest {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Autowired
+    private ItemSuggestIndex itemSuggestIndex;
+
+    @Autowired
+    private ItemColumnStore itemColumnStore;
+
     protected String getTestPath(String endpointPath) {
         String urlFormat = endpointPath.startsWith("/") ? "http://localhost:%d%s" : "http://localhost:%d/%s";
         return urlFormat.formatted(port, endpointPath);
@@ -33,5 +54,10 @@ public abstract class BaseIntegrationTest {
             jdbcTemplate.execute("TRUNCATE TABLE \"" + tableName + "\" RESTART IDENTITY");
         }
         jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        // truncate bypasses catalog write path, so cached results would not notice
+        cacheManager.getCacheNames().forEach(cacheName -> cacheManager.getCache(cacheName).clear());
+        itemSearchIndex.clear();
+        itemSuggestIndex.clear();
+        itemColumnStore.clear();
     }
 }
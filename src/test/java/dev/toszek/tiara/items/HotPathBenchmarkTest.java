@@ -0,0 +1,22 @@
+package dev.toszek.tiara.items;
+
+import dev.toszek.tiara.items.catalog.internal.ItemCatalogHotPathBenchmark;
+import dev.toszek.tiara.items.infrastructure.config.SecurityApiKeyAuthenticationFilterBenchmark;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JMH benchmarks of per request hot paths, results in {@code target/jmh/hot-paths.json}.
+ * Not part of regular build, run with {@code mvn test -Pbenchmark -Dtest=HotPathBenchmarkTest}.
+ */
+@Tag("benchmark")
+class HotPathBenchmarkTest {
+
+    @Test
+    void hotPaths() throws Exception {
+        assertThat(JmhRunner.run("hot-paths", ItemCatalogHotPathBenchmark.class, SecurityApiKeyAuthenticationFilterBenchmark.class))
+                .isNotEmpty();
+    }
+}
@@ -0,0 +1,51 @@
+package dev.toszek.tiara.items;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.regex.Pattern;
+
+/**
+ * Runs JMH benchmarks from JUnit tests of benchmark profile. Results are written as JMH JSON to
+ * {@code target/jmh/<name>.json} ({@code -Djmh.result.dir} to change), so runs of different releases can be compared.
+ * GC profiler adds allocated bytes per operation ({@code gc.alloc.rate.norm}) to every result.
+ */
+public final class JmhRunner {
+
+    private JmhRunner() {
+    }
+
+    public static Collection<RunResult> run(final String name, final Class<?>... benchmarks) throws RunnerException, IOException {
+        final Path resultDir = Path.of(System.getProperty("jmh.result.dir", "target/jmh"));
+        Files.createDirectories(resultDir);
+        final ChainedOptionsBuilder options = new OptionsBuilder()
+                .forks(1)
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultDir.resolve(name + ".json").toString())
+                .jvmArgsAppend(forwardedProperties());
+        for (Class<?> benchmark : benchmarks) {
+            options.include("^" + Pattern.quote(benchmark.getName()) + "\\.");
+        }
+        return new Runner(options.build()).run();
+    }
+
+    // benchmarks run in forked JVM, parameters like -Dbenchmark.items reach it only when passed explicitly
+    private static String[] forwardedProperties() {
+        return System.getProperties().stringPropertyNames().stream()
+                .filter(property -> property.startsWith("benchmark."))
+                .map(property -> "-D" + property + "=" + System.getProperty(property))
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,42 @@
+package dev.toszek.tiara.items;
+
+import dev.toszek.tiara.shared.sql.SqlStatementStats;
+import org.assertj.core.api.AbstractAssert;
+
+public class SqlStatementAssert extends AbstractAssert<SqlStatementAssert, SqlStatementStats> {
+    private final String name;
+
+    SqlStatementAssert(final SqlStatementStats actual, final String name) {
+        super(actual, SqlStatementAssert.class);
+        this.name = name;
+    }
+
+    public SqlStatementAssert hasNoStatements() {
+        return hasAtMostStatements(0);
+    }
+
+    public SqlStatementAssert hasStatements(final int expected) {
+        if (actual.statements() != expected) {
+            failWithMessage("Expected %s to issue %d statements but it issued %d:%n%s", name, expected, actual.statements(), statements());
+        }
+        return this;
+    }
+
+    public SqlStatementAssert hasAtMostStatements(final int max) {
+        if (actual.statements() > max) {
+            failWithMessage("Expected %s to issue at most %d statements but it issued %d:%n%s", name, max, actual.statements(), statements());
+        }
+        return this;
+    }
+
+    public SqlStatementAssert hasAtMostRows(final long max) {
+        if (actual.rows() > max) {
+            failWithMessage("Expected %s to read or change at most %d rows but it did %d:%n%s", name, max, actual.rows(), statements());
+        }
+        return this;
+    }
+
+    private String statements() {
+        return String.join(System.lineSeparator(), actual.sql());
+    }
+}
@@ -0,0 +1,76 @@
+package dev.toszek.tiara.items;
+
+import dev.toszek.tiara.shared.sql.SqlStatementListener;
+import dev.toszek.tiara.shared.sql.SqlStatementSource;
+import dev.toszek.tiara.shared.sql.SqlStatementStats;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects statement counts of requests and API calls finished after {@link #start()}, so tests can guard against
+ * extra queries, e.g. {@code sqlStatements.assertThatRequest("GET /api/items/{itemUuid}").hasAtMostStatements(1)}.
+ * Requests are counted on the server thread, which can finish after the client got the response, so assertions wait for them.
+ */
+public class SqlStatementCapture implements SqlStatementListener {
+    private static final long WAIT_MILLIS = 5_000;
+
+    private final List<Completed> completed = new ArrayList<>();
+    private boolean capturing;
+
+    public synchronized void start() {
+        completed.clear();
+        capturing = true;
+    }
+
+    @Override
+    public synchronized void completed(final SqlStatementSource source, final String name, final SqlStatementStats stats) {
+        if (capturing) {
+            completed.add(new Completed(source, name, stats));
+            notifyAll();
+        }
+    }
+
+    /**
+     * Statements of the next not yet asserted request, by method and path pattern, e.g. {@code GET /api/items}.
+     */
+    public SqlStatementAssert assertThatRequest(final String name) {
+        return new SqlStatementAssert(take(SqlStatementSource.HTTP_REQUEST, name), name);
+    }
+
+    /**
+     * Statements of the next not yet asserted {@link dev.toszek.tiara.items.catalog.ItemCatalogApi} call, by method name.
+     */
+    public SqlStatementAssert assertThatApiCall(final String method) {
+        return new SqlStatementAssert(take(SqlStatementSource.API_CALL, method), method);
+    }
+
+    private synchronized SqlStatementStats take(final SqlStatementSource source, final String name) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WAIT_MILLIS);
+        while (true) {
+            for (Iterator<Completed> iterator = completed.iterator(); iterator.hasNext(); ) {
+                final Completed next = iterator.next();
+                if (next.source() == source && next.name().equals(name)) {
+                    iterator.remove();
+                    return next.stats();
+                }
+            }
+            final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                throw new AssertionError("No %s %s captured, captured are %s".formatted(source, name,
+                        completed.stream().map(Completed::name).toList()));
+            }
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError("Interrupted while waiting for " + name, e);
+            }
+        }
+    }
+
+    private record Completed(SqlStatementSource source, String name, SqlStatementStats stats) {
+    }
+}
@@ -0,0 +1,150 @@
+package dev.toszek.tiara.items.catalog.controller;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import dev.toszek.tiara.items.BaseIntegrationTest;
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.CreateItemsCommand;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.load.LoadDriver;
+import dev.toszek.tiara.items.load.LoadOperation;
+import dev.toszek.tiara.items.load.LoadReport;
+import io.restassured.http.Header;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Open-loop load of the items API on the real application with embedded H2, latency percentiles per endpoint.
+ * Not part of regular build, run with {@code mvn test -Pbenchmark -Dtest=ItemsControllerEndpointMixBenchmarkTest}, tune with
+ * {@code -Dbenchmark.rate} (requests per second), {@code -Dbenchmark.seconds}, {@code -Dbenchmark.warmup-seconds},
+ * {@code -Dbenchmark.items} (items loaded before the run) and {@code -Dbenchmark.mix}, e.g. {@code get=80,list=20}.
+ * Percentile distributions are written to {@code target/load}.
+ */
+@Slf4j
+@Tag("benchmark")
+class ItemsControllerEndpointMixBenchmarkTest extends BaseIntegrationTest {
+    private static final int RATE = Integer.getInteger("benchmark.rate", 500);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("benchmark.warmup-seconds", 10));
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 30));
+    private static final int ITEMS = Integer.getInteger("benchmark.items", 10_000);
+    private static final String MIX = System.getProperty("benchmark.mix", "get=50,list=20,create=10,bulk=2,update=10,delete=8");
+    private static final int BULK_SIZE = 50;
+
+    private final Gson gson = new Gson();
+    // items created during the run, deletes take from here, so preloaded items stay available for reads and updates
+    private final Queue<UUID> deletable = new ConcurrentLinkedQueue<>();
+    private List<UUID> preloaded;
+
+    @Autowired
+    private ItemCatalogApi itemCatalogApi;
+
+    @BeforeEach
+    void prepareItems() {
+        clearH2Db();
+        preloaded = new ArrayList<>(ITEMS);
+        for (int created = 0; created < ITEMS; created += CreateItemsCommand.MAX_ITEMS) {
+            itemCatalogApi.createItems(new CreateItemsCommand(IntStream.range(created, Math.min(created + CreateItemsCommand.MAX_ITEMS, ITEMS))
+                            .mapToObj(this::command)
+                            .toList()))
+                    .stream()
+                    .map(ItemDto::uuid)
+                    .forEach(preloaded::add);
+        }
+    }
+
+    @Test
+    void endpointMix() throws Exception {
+        final List<LoadOperation> mix = Arrays.stream(MIX.split(","))
+                .map(entry -> entry.trim().split("="))
+                .map(entry -> operation(entry[0], Integer.parseInt(entry[1])))
+                .toList();
+
+        final LoadReport report;
+        try (HttpClient httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build()) {
+            report = new LoadDriver(httpClient, mix).run(RATE, WARMUP, MEASUREMENT);
+        }
+
+        log.info("Items API load:\n{}", report);
+        report.writeHistograms(Path.of("target", "load"));
+        for (LoadOperation operation : mix) {
+            assertThat(report.row(operation.name()).count()).as(operation.name()).isPositive();
+        }
+    }
+
+    private LoadOperation operation(final String name, final int weight) {
+        return switch (name) {
+            case "get" -> new LoadOperation(name, weight, () -> request("/" + randomPreloaded()).GET().build());
+            case "list" -> new LoadOperation(name, weight, () -> request(listQuery()).GET().build());
+            case "create" -> new LoadOperation(name, weight,
+                    () -> request("").POST(json(command(ThreadLocalRandom.current().nextInt()))).build(),
+                    response -> deletable.add(UUID.fromString(gson.fromJson(response.body(), JsonObject.class).get("uuid").getAsString())));
+            case "bulk" -> new LoadOperation(name, weight, () -> request("/bulk").POST(json(new CreateItemsCommand(IntStream.range(0, BULK_SIZE)
+                    .mapToObj(i -> command(ThreadLocalRandom.current().nextInt()))
+                    .toList()))).build());
+            case "update" -> new LoadOperation(name, weight,
+                    () -> request("/" + randomPreloaded()).PUT(json(command(ThreadLocalRandom.current().nextInt()))).build());
+            case "delete" -> new LoadOperation(name, weight, () -> {
+                final UUID uuid = deletable.poll();
+                return uuid == null ? null : request("/" + uuid).DELETE().build();
+            });
+            default -> throw new IllegalArgumentException("Unknown operation %s in benchmark.mix, known are get, list, create, bulk, update, delete".formatted(name));
+        };
+    }
+
+    private HttpRequest.Builder request(final String path) {
+        final Header apiKey = getApiKeyHeader();
+        return HttpRequest.newBuilder(URI.create(getTestPath("/api/items" + path)))
+                .header(apiKey.getName(), apiKey.getValue())
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private static String listQuery() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final String sort = List.of("id", "name", "price", "creationDate").get(random.nextInt(4));
+        return switch (random.nextInt(3)) {
+            case 0 -> "?page=%d&size=20&sort=%s".formatted(random.nextInt(10), sort);
+            case 1 -> "?name=Item+%d%%25&size=20&sort=%s".formatted(random.nextInt(100), sort);
+            default -> "?greaterThenPrice=%d&lessThenPrice=%d&size=20&sort=%s".formatted(random.nextInt(50), 50 + random.nextInt(50), sort);
+        };
+    }
+
+    private HttpRequest.BodyPublisher json(final Object body) {
+        return HttpRequest.BodyPublishers.ofString(gson.toJson(body));
+    }
+
+    private UUID randomPreloaded() {
+        return preloaded.get(ThreadLocalRandom.current().nextInt(preloaded.size()));
+    }
+
+    private SaveItemCommand command(final int i) {
+        return new SaveItemCommand("Item " + Math.abs(i % 100_000), "Description " + i, BigDecimal.valueOf(Math.abs(i % 10_000), 2));
+    }
+}
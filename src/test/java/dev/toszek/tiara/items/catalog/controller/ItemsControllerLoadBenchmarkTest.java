@@ -0,0 +1,178 @@
+package dev.toszek.tiara.items.catalog.controller;
+
+import dev.toszek.tiara.items.Application;
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.CreateItemsCommand;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.infrastructure.config.SecurityApiKeyConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and latency of the HTTP API with requests on Tomcat platform threads against virtual threads,
+ * for 200, 2k and 10k concurrent clients. Every client sends its next request as soon as the previous one is answered,
+ * four of five requests read an item by uuid, the rest reads a filtered slice from the database.
+ * Not part of regular build, run with {@code mvn test -Pbenchmark}, length of each run with {@code -Dbenchmark.seconds}.
+ */
+@Slf4j
+@Tag("benchmark")
+class ItemsControllerLoadBenchmarkTest {
+    private static final int[] CLIENTS = {200, 2_000, 10_000};
+    private static final int ITEMS = Integer.getInteger("benchmark.items", 10_000);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("benchmark.warmup-seconds", 5));
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 20));
+
+    @Test
+    void platformAgainstVirtualThreads() throws Exception {
+        final List<String> report = new ArrayList<>();
+        for (final boolean virtualThreads : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtualThreads)) {
+                final int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                final List<UUID> uuids = createItems(context.getBean(ItemCatalogApi.class));
+                for (final int clients : CLIENTS) {
+                    final LoadResult result = run(port, uuids, clients);
+                    report.add("%-8s %6d clients: %8.0f req/s, p50 %7.1f ms, p99 %7.1f ms, errors %d".formatted(
+                            virtualThreads ? "virtual" : "platform", clients, result.throughput(),
+                            result.p50Millis(), result.p99Millis(), result.errors()));
+                    assertThat(result.requests()).isPositive();
+                }
+            }
+        }
+        log.info("Load test results:\n{}", String.join("\n", report));
+    }
+
+    private static ConfigurableApplicationContext start(final boolean virtualThreads) {
+        return new SpringApplicationBuilder(Application.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        // each run gets its own database
+                        "spring.datasource.url=jdbc:h2:mem:load-" + (virtualThreads ? "virtual" : "platform"),
+                        // the single test client would be limited long before the server saturates
+                        "app.security.rate-limit.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    private static List<UUID> createItems(final ItemCatalogApi itemCatalogApi) {
+        final List<UUID> uuids = new ArrayList<>(ITEMS);
+        for (int created = 0; created < ITEMS; created += CreateItemsCommand.MAX_ITEMS) {
+            itemCatalogApi.createItems(new CreateItemsCommand(IntStream.range(created, Math.min(created + CreateItemsCommand.MAX_ITEMS, ITEMS))
+                            .mapToObj(i -> new SaveItemCommand("Item " + i, "Description " + i, BigDecimal.valueOf(i % 10_000, 2)))
+                            .toList()))
+                    .stream()
+                    .map(ItemDto::uuid)
+                    .forEach(uuids::add);
+        }
+        return uuids;
+    }
+
+    private static LoadResult run(final int port, final List<UUID> uuids, final int clients) throws Exception {
+        final long warmupEnd = System.nanoTime() + WARMUP.toNanos();
+        final long end = warmupEnd + MEASUREMENT.toNanos();
+        try (HttpClient httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+             ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<ClientResult>> results = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                results.add(clientThreads.submit(() -> runClient(httpClient, port, uuids, warmupEnd, end)));
+            }
+            long[] latencies = new long[0];
+            int errors = 0;
+            for (Future<ClientResult> result : results) {
+                final ClientResult client = result.get();
+                final int from = latencies.length;
+                latencies = Arrays.copyOf(latencies, from + client.count());
+                System.arraycopy(client.latencies(), 0, latencies, from, client.count());
+                errors += client.errors();
+            }
+            Arrays.sort(latencies);
+            return new LoadResult(latencies, errors);
+        }
+    }
+
+    private static ClientResult runClient(final HttpClient httpClient, final int port, final List<UUID> uuids,
+                                          final long warmupEnd, final long end) throws InterruptedException {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] latencies = new long[1024];
+        int count = 0;
+        int errors = 0;
+        long start;
+        while ((start = System.nanoTime()) < end) {
+            final String path = random.nextInt(5) == 0
+                    ? "/api/items?mode=slice&size=20&sort=price&name=Item+" + random.nextInt(10) + "%25"
+                    : "/api/items/" + uuids.get(random.nextInt(uuids.size()));
+            final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header(SecurityApiKeyConstants.API_KEY_HEADER, "LetMeIn")
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+            boolean ok;
+            try {
+                ok = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+            } catch (IOException e) {
+                ok = false;
+            }
+            if (start < warmupEnd) {
+                continue;
+            }
+            if (!ok) {
+                errors++;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+        return new ClientResult(latencies, count, errors);
+    }
+
+    private record ClientResult(long[] latencies, int count, int errors) {
+    }
+
+    private record LoadResult(long[] sortedLatencies, int errors) {
+        int requests() {
+            return sortedLatencies.length;
+        }
+
+        double throughput() {
+            return (double) requests() / MEASUREMENT.toSeconds();
+        }
+
+        double p50Millis() {
+            return percentileMillis(0.50);
+        }
+
+        double p99Millis() {
+            return percentileMillis(0.99);
+        }
+
+        private double percentileMillis(final double percentile) {
+            return requests() == 0 ? 0 : sortedLatencies[(int) (requests() * percentile)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package dev.toszek.tiara.items.catalog.controller;
+
+import com.google.gson.Gson;
+import dev.toszek.tiara.items.BaseIntegrationTest;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+
+class ItemsControllerMetricsTest extends BaseIntegrationTest {
+
+    private final Gson gson = new Gson();
+
+    @BeforeEach
+    void clearDatabaseState() {
+        clearH2Db();
+    }
+
+    @Test
+    public void prometheus_shouldExposeEndpointCacheAndPersistenceMetrics() {
+        final String uuid = given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new SaveItemCommand("Metered Item", "Description", BigDecimal.valueOf(9.99))))
+                .header(getApiKeyHeader())
+                .when()
+                .post(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract()
+                .path("uuid");
+
+        for (int i = 0; i < 2; i++) {
+            given()
+                    .header(getApiKeyHeader())
+                    .when()
+                    .get(getTestPath("/api/items/" + uuid))
+                    .then()
+                    .statusCode(HttpStatus.OK.value());
+        }
+        given()
+                .header(getApiKeyHeader())
+                .when()
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        given()
+                .header(getApiKeyHeader())
+                .when()
+                .get(getTestPath("/actuator/prometheus"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(allOf(
+                        // endpoint latency histogram
+                        containsString("http_server_requests_seconds_bucket{"),
+                        containsString("uri=\"/api/items/{itemUuid}\""),
+                        // caffeine stats, also of caches registered after startup
+                        containsString("cache_gets_total{cache=\"itemsById\""),
+                        containsString("cache_gets_total{cache=\"missingItemsById\""),
+                        containsString("cache_gets_total{cache=\"itemQueries\""),
+                        // hibernate statistics
+                        containsString("hibernate_query_executions_total"),
+                        containsString("hibernate_entities_inserts_total"),
+                        containsString("hibernate_flushes_total"),
+                        // connection pool
+                        containsString("hikaricp_connections_active"),
+                        containsString("jdbc_connections_permits_active"),
+                        // catalog api timers
+                        containsString("items_catalog_api_seconds_bucket{"),
+                        containsString("method=\"findById\"")));
+    }
+
+    @Test
+    public void managementEndpoints_shouldRequireApiKeyExceptHealth() {
+        given()
+                .when()
+                .get(getTestPath("/actuator/prometheus"))
+                .then()
+                .statusCode(HttpStatus.UNAUTHORIZED.value());
+        given()
+                .when()
+                .get(getTestPath("/actuator/metrics"))
+                .then()
+                .statusCode(HttpStatus.UNAUTHORIZED.value());
+        given()
+                .when()
+                .get(getTestPath("/actuator/health"))
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+}
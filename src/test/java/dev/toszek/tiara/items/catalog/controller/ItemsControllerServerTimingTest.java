@@ -0,0 +1,78 @@
+package dev.toszek.tiara.items.catalog.controller;
+
+import dev.toszek.tiara.items.BaseIntegrationTest;
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+class ItemsControllerServerTimingTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ItemCatalogApi itemCatalogApi;
+
+    @BeforeEach
+    void clearDatabaseState() {
+        clearH2Db();
+        itemCatalogApi.createItem(new SaveItemCommand("Timed Item", "Description", BigDecimal.valueOf(9.99)));
+    }
+
+    @Test
+    public void getAllItems_shouldReturnPhasesWhenAskedFor() {
+        given()
+                .header(getApiKeyHeader())
+                .header("X-Server-Timing", "true")
+                .when()
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("content[0].name", equalTo("Timed Item"))
+                .header("Server-Timing", allOf(
+                        containsString("auth;"),
+                        containsString("cache;"),
+                        containsString("spec;"),
+                        containsString("db;"),
+                        containsString("map;"),
+                        containsString("json;"),
+                        containsString("total;dur=")));
+
+        given()
+                .header(getApiKeyHeader())
+                .when()
+                .get(getTestPath("/actuator/metrics/http.server.phases?tag=phase:db&tag=uri:/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+    @Test
+    public void getAllItems_shouldNotBeTimedByDefault() {
+        given()
+                .header(getApiKeyHeader())
+                .when()
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("Server-Timing", nullValue());
+    }
+
+    @Test
+    public void health_shouldNotReturnPhasesToClientWithoutApiKey() {
+        given()
+                .header("X-Server-Timing", "true")
+                .when()
+                .get(getTestPath("/actuator/health"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("Server-Timing", nullValue());
+    }
+}
@@ -0,0 +1,124 @@
+package dev.toszek.tiara.items.catalog.controller;
+
+import com.google.gson.Gson;
+import dev.toszek.tiara.items.BaseIntegrationTest;
+import dev.toszek.tiara.items.SqlStatementCapture;
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.GetItemsCommand;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import dev.toszek.tiara.items.catalog.internal.cache.ItemCacheNames;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+/**
+ * Guards number of statements of hot endpoints, so an extra query shows up as failed build.
+ */
+class ItemsControllerSqlStatementsTest extends BaseIntegrationTest {
+
+    private final Gson gson = new Gson();
+
+    @Autowired
+    private SqlStatementCapture sqlStatements;
+
+    @Autowired
+    private ItemCatalogApi itemCatalogApi;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void clearDatabaseState() {
+        clearH2Db();
+        sqlStatements.start();
+    }
+
+    @Test
+    public void getItem_shouldBeServedFromCacheAfterCreate() {
+        final String uuid = given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new SaveItemCommand("Counted Item", "Description", BigDecimal.valueOf(9.99))))
+                .header(getApiKeyHeader())
+                .when()
+                .post(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract()
+                .path("uuid");
+
+        given()
+                .header(getApiKeyHeader())
+                .when()
+                .get(getTestPath("/api/items/" + uuid))
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        sqlStatements.assertThatRequest("GET /api/items/{itemUuid}").hasNoStatements();
+    }
+
+    @Test
+    public void getAllItems_shouldNotQueryAgainForUnchangedPage() {
+        itemCatalogApi.createItem(new SaveItemCommand("Listed Item", "Description", BigDecimal.valueOf(9.99)));
+
+        for (int i = 0; i < 2; i++) {
+            given()
+                    .header(getApiKeyHeader())
+                    .queryParam("size", 10)
+                    .when()
+                    .get(getTestPath("/api/items"))
+                    .then()
+                    .statusCode(HttpStatus.OK.value());
+        }
+
+        // content and count
+        sqlStatements.assertThatRequest("GET /api/items").hasAtMostStatements(2).hasAtMostRows(2);
+        sqlStatements.assertThatRequest("GET /api/items").hasNoStatements();
+    }
+
+    @Test
+    public void findById_shouldQueryUnknownItemOnce() {
+        final UUID unknown = UUID.randomUUID();
+
+        assertThat(itemCatalogApi.findById(unknown)).isEmpty();
+        assertThat(itemCatalogApi.findById(unknown)).isEmpty();
+
+        sqlStatements.assertThatApiCall("findById").hasStatements(1).hasAtMostRows(0);
+        sqlStatements.assertThatApiCall("findById").hasNoStatements();
+    }
+
+    @Test
+    public void getItemsByIds_shouldLoadMissesWithOneQuery() {
+        final UUID first = itemCatalogApi.createItem(new SaveItemCommand("First", "Description", BigDecimal.ONE)).uuid();
+        final UUID second = itemCatalogApi.createItem(new SaveItemCommand("Second", "Description", BigDecimal.TWO)).uuid();
+        final UUID unknown = UUID.randomUUID();
+        cacheManager.getCache(ItemCacheNames.ITEMS_BY_ID).clear();
+        final String body = gson.toJson(new GetItemsCommand(List.of(second, unknown, first)));
+
+        for (int i = 0; i < 2; i++) {
+            given()
+                    .contentType(ContentType.JSON)
+                    .body(body)
+                    .header(getApiKeyHeader())
+                    .when()
+                    .post(getTestPath("/api/items/batch-get"))
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("items.name", contains("Second", "First"))
+                    .body("notFound", contains(unknown.toString()));
+        }
+
+        sqlStatements.assertThatRequest("POST /api/items/batch-get").hasStatements(1).hasAtMostRows(2);
+        sqlStatements.assertThatRequest("POST /api/items/batch-get").hasNoStatements();
+    }
+}
@@ -2,11 +2,16 @@ package dev.toszek.tiara.items.catalog.controller;
 
 import com.google.gson.Gson;
 import dev.toszek.tiara.items.BaseIntegrationTest;
+import dev.toszek.tiara.items.catalog.command.BulkDeleteItemsCommand;
+import dev.toszek.tiara.items.catalog.command.BulkUpdatePriceCommand;
 import dev.toszek.tiara.items.catalog.command.CreateItemsCommand;
+import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
 import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
 import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 
 import java.math.BigDecimal;
@@ -15,9 +20,17 @@ import java.util.List;
 import java.util.UUID;
 
 import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.emptyString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 
 class ItemsControllerTest extends BaseIntegrationTest {
 
@@ -78,6 +91,582 @@ class ItemsControllerTest extends BaseIntegrationTest {
                 .body("[1].price", equalTo(items.get(1).price().floatValue()));
     }
 
+    @Test
+    public void createItems_shouldCreateMoreItemsThanOneBatch() {
+        // Prepare the request body, more items than one jdbc batch
+        List<SaveItemCommand> items = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            items.add(new SaveItemCommand("Item " + i, "Test Description " + i, BigDecimal.valueOf(i + 1)));
+        }
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new CreateItemsCommand(items)))
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/bulk"))
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .body("size()", is(120))
+                .body("[119].name", equalTo("Item 119"));
+
+        given()
+                .param("page", 0)
+                .param("size", 10)
+                .when()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("totalElements", equalTo(120));
+    }
+
+    @Test
+    public void importItems_shouldCreateValidNdjsonRecordsAndReportInvalidOnes() {
+        String body = """
+                {"name": "Item 1", "description": "Description 1", "price": 9.99}
+                {"name": "", "description": "Description 2", "price": 19.99}
+
+                {"name": "Item 3", "description": "Description 3", "price": 
+                {"name": "Item 4", "description": "Description 4", "price": 29.99}
+                """;
+
+        given()
+                .contentType(containsString("application/x-ndjson"))
+                .body(body)
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/import"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(ContentType.JSON)
+                .body("recordsRead", equalTo(4))
+                .body("created", equalTo(2))
+                .body("failed", equalTo(2))
+                .body("errors[0].line", equalTo(2))
+                .body("errors[0].message", equalTo("name: must not be blank"))
+                .body("errors[1].line", equalTo(4))
+                .body("errorsTruncated", is(false));
+
+        given()
+                .param("page", 0)
+                .param("size", 10)
+                .param("sort", "name")
+                .when()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("content.name", contains("Item 1", "Item 4"));
+    }
+
+    @Test
+    public void importItems_shouldCreateItemsFromCsv() {
+        String body = """
+                price,name,description
+                9.99,Item 1,"Description, with comma"
+                abc,Item 2,Description 2
+                19.99,"Item ""3""\","Multi
+                line"
+                """;
+
+        given()
+                .contentType("text/csv")
+                .body(body)
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/import"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("recordsRead", equalTo(3))
+                .body("created", equalTo(2))
+                .body("errors[0].line", equalTo(3))
+                .body("errors[0].message", equalTo("price: not a number"));
+
+        given()
+                .param("page", 0)
+                .param("size", 10)
+                .param("sort", "price")
+                .when()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("content.name", contains("Item 1", "Item \"3\""))
+                .body("content.description", contains("Description, with comma", "Multi\nline"));
+    }
+
+    @Test
+    public void importItems_shouldRejectCsvWithoutRequiredColumns() {
+        given()
+                .contentType("text/csv")
+                .body("name,price\nItem 1,9.99\n")
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/import"))
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    public void exportItems_shouldStreamMatchingItems() {
+        List<SaveItemCommand> items = List.of(
+                new SaveItemCommand("Item 1", "Description 1", BigDecimal.valueOf(9.99)),
+                new SaveItemCommand("Item 2", "Description, \"quoted\"", BigDecimal.valueOf(19.99)),
+                new SaveItemCommand("Item 3", "Description 3", BigDecimal.valueOf(29.99)));
+        given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new CreateItemsCommand(items)))
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/bulk"))
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+
+        // ndjson, one item per line
+        String ndjson = given()
+                .param("lessThenPrice", 25)
+                .when()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items/export"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(containsString("application/x-ndjson"))
+                .extract()
+                .asString();
+        List<String> lines = ndjson.lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(JsonPath.from(lines.get(0)).getString("name")).isEqualTo("Item 1");
+
+        // csv with header, fields with comma and quotes are quoted
+        String csv = given()
+                .param("format", "CSV")
+                .param("lessThenPrice", 25)
+                .when()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items/export"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(containsString("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, containsString("items.csv"))
+                .extract()
+                .asString();
+        lines = csv.lines().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).isEqualTo("uuid,name,description,price,creationDate,lastModifiedDate");
+        assertThat(lines.get(2)).contains(",Item 2,\"Description, \"\"quoted\"\"\",19.99,");
+    }
+
+    @Test
+    public void bulkPriceUpdate_shouldChangeSelectedItemsAndRefreshCachedOnes() {
+        List<String> uuids = createItems(
+                new SaveItemCommand("Item 1", "Description", BigDecimal.valueOf(10)),
+                new SaveItemCommand("Item 2", "Description", BigDecimal.valueOf(20)),
+                new SaveItemCommand("Item 3", "Description", BigDecimal.valueOf(30)));
+        // item is cached before the update
+        given()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items/" + uuids.get(0)))
+                .then()
+                .body("price", equalTo(10.0f));
+
+        // +10% for items cheaper than 25
+        given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new BulkUpdatePriceCommand(null, new ItemFetchFilter(null, null, null, BigDecimal.valueOf(25), null),
+                        null, null, BigDecimal.TEN)))
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/bulk/price"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("affectedItems", equalTo(2));
+
+        // fixed price by uuid
+        given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new BulkUpdatePriceCommand(List.of(UUID.fromString(uuids.get(2))), null,
+                        BigDecimal.valueOf(5), null, null)))
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/bulk/price"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("affectedItems", equalTo(1));
+
+        given()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items/" + uuids.get(0)))
+                .then()
+                .body("price", equalTo(11.0f));
+        given()
+                .param("sort", "name")
+                .when()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("content.price", contains(11.0f, 22.0f, 5.0f));
+    }
+
+    @Test
+    public void bulkPriceUpdate_shouldRejectAmbiguousCommand() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new BulkUpdatePriceCommand(List.of(UUID.randomUUID()), null,
+                        BigDecimal.ONE, BigDecimal.ONE, null)))
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/bulk/price"))
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    public void bulkPriceUpdate_shouldRejectChangeBeyondPriceRange() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new BulkUpdatePriceCommand(List.of(UUID.randomUUID()), null,
+                        null, new BigDecimal("1000000"), null)))
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/bulk/price"))
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    public void bulkPriceUpdate_shouldNotMakePriceNegative() {
+        List<String> uuids = createItems(new SaveItemCommand("Item 1", "Description", BigDecimal.valueOf(10)));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new BulkUpdatePriceCommand(List.of(UUID.fromString(uuids.get(0))), null,
+                        null, BigDecimal.valueOf(-50), null)))
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/bulk/price"))
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        given()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items/" + uuids.get(0)))
+                .then()
+                .body("price", equalTo(0.0f));
+    }
+
+    @Test
+    public void bulkOperations_shouldRejectEmptyFilter() {
+        List<String> uuids = createItems(new SaveItemCommand("Item 1", "Description", BigDecimal.valueOf(10)));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"filter\": {}}")
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/bulk/delete"))
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"filter\": {}, \"price\": 1}")
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/bulk/price"))
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+
+        given()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items/" + uuids.get(0)))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("price", equalTo(10.0f));
+    }
+
+    @Test
+    public void bulkDelete_shouldDeleteSelectedItems() {
+        List<String> uuids = createItems(
+                new SaveItemCommand("Item 1", "Description", BigDecimal.valueOf(10)),
+                new SaveItemCommand("Item 2", "Description", BigDecimal.valueOf(20)),
+                new SaveItemCommand("Other", "Description", BigDecimal.valueOf(30)));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new BulkDeleteItemsCommand(null, new ItemFetchFilter("Item%", null, null, null, null))))
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/bulk/delete"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("affectedItems", equalTo(2));
+        given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new BulkDeleteItemsCommand(List.of(UUID.fromString(uuids.get(2)), UUID.randomUUID()), null)))
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/bulk/delete"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("affectedItems", equalTo(1));
+
+        given()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items/" + uuids.get(0)))
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+        given()
+                .when()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items"))
+                .then()
+                .body("totalElements", equalTo(0));
+    }
+
+    @Test
+    public void getItemById_shouldSupportConditionalRequests() {
+        String uuid = createItems(new SaveItemCommand("Item 1", "Description", BigDecimal.TEN)).get(0);
+        String eTag = given()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items/" + uuid))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, equalTo("\"" + uuid + "-0\""))
+                .header(HttpHeaders.LAST_MODIFIED, notNullValue())
+                .extract()
+                .header(HttpHeaders.ETAG);
+
+        // unchanged item, no body
+        given()
+                .header(getApiKeyHeader())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .get(getTestPath("/api/items/" + uuid))
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value())
+                .body(emptyString());
+
+        // conditional update with current version succeeds and returns new tag
+        String newETag = given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new SaveItemCommand("Item 1", "Description", BigDecimal.ONE)))
+                .header(getApiKeyHeader())
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .put(getTestPath("/api/items/" + uuid))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("version", equalTo(1))
+                .header(HttpHeaders.ETAG, equalTo("\"" + uuid + "-1\""))
+                .extract()
+                .header(HttpHeaders.ETAG);
+
+        // stale tag, neither update nor delete is applied
+        given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new SaveItemCommand("Item 1", "Description", BigDecimal.TEN)))
+                .header(getApiKeyHeader())
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .put(getTestPath("/api/items/" + uuid))
+                .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+        given()
+                .header(getApiKeyHeader())
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .delete(getTestPath("/api/items/" + uuid))
+                .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+        given()
+                .header(getApiKeyHeader())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .get(getTestPath("/api/items/" + uuid))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("price", equalTo(1.0f));
+
+        given()
+                .header(getApiKeyHeader())
+                .header(HttpHeaders.IF_MATCH, newETag)
+                .delete(getTestPath("/api/items/" + uuid))
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+        given()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items/" + uuid))
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    public void getAllItems_shouldBeNotModifiedUntilMatchingItemChanges() {
+        createItems(new SaveItemCommand("Item 1", "Description", BigDecimal.TEN));
+        String eTag = given()
+                .param("name", "Item%")
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, notNullValue())
+                .extract()
+                .header(HttpHeaders.ETAG);
+
+        // item outside of the filter does not change the listing
+        createItems(new SaveItemCommand("Other", "Description", BigDecimal.TEN));
+        given()
+                .param("name", "Item%")
+                .header(getApiKeyHeader())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value())
+                .header(HttpHeaders.ETAG, equalTo(eTag));
+
+        createItems(new SaveItemCommand("Item 2", "Description", BigDecimal.TEN));
+        given()
+                .param("name", "Item%")
+                .header(getApiKeyHeader())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, not(equalTo(eTag)))
+                .body("totalElements", equalTo(2));
+    }
+
+    private List<String> createItems(SaveItemCommand... items) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new CreateItemsCommand(List.of(items))))
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/bulk"))
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract()
+                .path("uuid");
+    }
+
+    @Test
+    public void searchItems_shouldReturnMatchingItemsMostRelevantFirst() {
+        List<String> uuids = createItems(
+                new SaveItemCommand("Garden hose", "Flexible green hose", BigDecimal.TEN),
+                new SaveItemCommand("Hose reel", "Holds garden hose up to 30 m", BigDecimal.ONE),
+                new SaveItemCommand("Garden chair", "Folding", BigDecimal.ONE));
+
+        given()
+                .header(getApiKeyHeader())
+                .queryParam("q", "garden HOSE")
+                .when()
+                .get(getTestPath("/api/items/search"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("totalElements", equalTo(2))
+                .body("content.uuid", contains(uuids.get(0), uuids.get(1)));
+
+        // index follows updates
+        given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new SaveItemCommand("Garden chair", "Folding, fits next to garden hose", BigDecimal.ONE)))
+                .header(getApiKeyHeader())
+                .when()
+                .put(getTestPath("/api/items/" + uuids.get(2)))
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        given()
+                .header(getApiKeyHeader())
+                .queryParam("q", "folding hose")
+                .when()
+                .get(getTestPath("/api/items/search"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("totalElements", equalTo(1))
+                .body("content.uuid", contains(uuids.get(2)));
+
+        given()
+                .header(getApiKeyHeader())
+                .queryParam("q", "garden hose")
+                .queryParam("size", 1)
+                .queryParam("page", 1)
+                .when()
+                .get(getTestPath("/api/items/search"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("totalElements", equalTo(3))
+                .body("content", hasSize(1));
+    }
+
+    @Test
+    public void searchItems_shouldRejectBlankQuery() {
+        given()
+                .header(getApiKeyHeader())
+                .queryParam("q", " ")
+                .when()
+                .get(getTestPath("/api/items/search"))
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    public void suggestItems_shouldReturnNamesStartingWithPrefix() {
+        List<String> uuids = createItems(
+                new SaveItemCommand("Garden hose", "Description", BigDecimal.TEN),
+                new SaveItemCommand("Garden chair", "Description", BigDecimal.ONE),
+                new SaveItemCommand("Hose reel", "Description", BigDecimal.ONE));
+
+        given()
+                .header(getApiKeyHeader())
+                .queryParam("prefix", "gar")
+                .when()
+                .get(getTestPath("/api/items/suggest"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("name", contains("Garden chair", "Garden hose"))
+                .body("uuid", contains(uuids.get(1), uuids.get(0)));
+
+        given()
+                .header(getApiKeyHeader())
+                .when()
+                .delete(getTestPath("/api/items/" + uuids.get(1)))
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+
+        given()
+                .header(getApiKeyHeader())
+                .queryParam("prefix", "Garden")
+                .queryParam("limit", 1)
+                .when()
+                .get(getTestPath("/api/items/suggest"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("uuid", contains(uuids.get(0)));
+
+        given()
+                .header(getApiKeyHeader())
+                .queryParam("prefix", "gar")
+                .queryParam("limit", 1000)
+                .when()
+                .get(getTestPath("/api/items/suggest"))
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+
+        given()
+                .header(getApiKeyHeader())
+                .queryParam("prefix", " ")
+                .when()
+                .get(getTestPath("/api/items/suggest"))
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+
+        given()
+                .header(getApiKeyHeader())
+                .when()
+                .get(getTestPath("/actuator/metrics/items.suggest.memory"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("baseUnit", equalTo("bytes"))
+                .body("measurements[0].value", greaterThan(0f));
+    }
+
     @Test
     public void createItem_shouldReturnBadRequest() {
         // missing name
@@ -237,6 +826,21 @@ class ItemsControllerTest extends BaseIntegrationTest {
                 .contentType(ContentType.JSON)
                 .body("content.size()", equalTo(1));
 
+        // test slice mode, no totals
+        given()
+                .param("mode", "slice")
+                .param("page", 0)
+                .param("size", 3)
+                .when()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(ContentType.JSON)
+                .body("content.size()", equalTo(3))
+                .body("last", is(false))
+                .body("totalElements", nullValue());
+
         // test search when nothing is found
         given()
                 .param("page", 0)
@@ -251,6 +855,97 @@ class ItemsControllerTest extends BaseIntegrationTest {
                 .body("content.size()", equalTo(0));
     }
 
+    @Test
+    public void getAllItemsByCursor_shouldWalkAllItems() {
+        // Prepare the request body
+        List<SaveItemCommand> items = new ArrayList<>();
+        items.add(new SaveItemCommand("Item 1", "Description 1", BigDecimal.valueOf(9.99)));
+        items.add(new SaveItemCommand("Item 2", "Description 2", BigDecimal.valueOf(19.99)));
+        items.add(new SaveItemCommand("Item 3", "Description 3", BigDecimal.valueOf(19.99)));
+        items.add(new SaveItemCommand("Item 4", "Description 4", BigDecimal.valueOf(39.99)));
+        items.add(new SaveItemCommand("Item 5", "Description 5", BigDecimal.valueOf(49.99)));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(gson.toJson(new CreateItemsCommand(items)))
+                .when()
+                .header(getApiKeyHeader())
+                .post(getTestPath("/api/items/bulk"))
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+
+        // first page, most expensive items first
+        String cursor = given()
+                .param("mode", "cursor")
+                .param("size", 2)
+                .param("sort", "price,desc")
+                .when()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(ContentType.JSON)
+                .body("content.size()", equalTo(2))
+                .body("content[0].name", equalTo("Item 5"))
+                .body("hasNext", is(true))
+                .extract()
+                .path("nextCursor");
+
+        // second page continues after cursor, equal prices are ordered by id
+        cursor = given()
+                .param("mode", "cursor")
+                .param("size", 2)
+                .param("cursor", cursor)
+                .when()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("content.size()", equalTo(2))
+                .body("content[0].name", equalTo("Item 3"))
+                .body("content[1].name", equalTo("Item 2"))
+                .body("hasNext", is(true))
+                .extract()
+                .path("nextCursor");
+
+        // last page
+        given()
+                .param("mode", "cursor")
+                .param("size", 2)
+                .param("cursor", cursor)
+                .when()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("content.size()", equalTo(1))
+                .body("content[0].name", equalTo("Item 1"))
+                .body("hasNext", is(false));
+
+        // filters are applied together with cursor
+        given()
+                .param("mode", "cursor")
+                .param("size", 10)
+                .queryParam("greaterThenPrice", BigDecimal.valueOf(20))
+                .when()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("content.size()", equalTo(2))
+                .body("hasNext", is(false));
+
+        // tampered cursor
+        given()
+                .param("mode", "cursor")
+                .param("cursor", "garbage")
+                .when()
+                .header(getApiKeyHeader())
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
     @Test
     public void deleteItem_shouldDeleteItem() {
         // Prepare a test item to be deleted
@@ -0,0 +1,69 @@
+package dev.toszek.tiara.items.catalog.internal;
+
+import dev.toszek.tiara.items.BaseIntegrationTest;
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.CreateItemsCommand;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Items/sec of bulk creation, batched insert path against one insert per item in the same transaction.
+ * Not part of regular build, run with {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class ItemBulkCreateBenchmarkTest extends BaseIntegrationTest {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Autowired
+    private ItemCatalogApi itemCatalogApi;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void clearState() {
+        clearH2Db();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {50, 1_000, 10_000})
+    void bulkCreate_itemsPerSecond(int batchSize) {
+        final CreateItemsCommand command = new CreateItemsCommand(IntStream.range(0, batchSize)
+                .mapToObj(i -> new SaveItemCommand("Item " + i, "Description " + i, BigDecimal.valueOf(i % 1000, 2)))
+                .toList());
+
+        final double batched = itemsPerSecond(command, () -> itemCatalogApi.createItems(command));
+        final double oneByOne = itemsPerSecond(command, () -> transactionTemplate.executeWithoutResult(status ->
+                command.items().forEach(itemCatalogApi::createItem)));
+
+        log.info("Bulk create of {} items: batched {} items/s, one by one {} items/s",
+                batchSize, Math.round(batched), Math.round(oneByOne));
+        assertThat(batched).isPositive();
+    }
+
+    private double itemsPerSecond(final CreateItemsCommand command, final Runnable create) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            create.run();
+        }
+        long elapsedNanos = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            final long start = System.nanoTime();
+            create.run();
+            elapsedNanos += System.nanoTime() - start;
+        }
+        return command.items().size() * MEASURED_ROUNDS / (elapsedNanos / 1_000_000_000.0);
+    }
+}
@@ -1,25 +1,47 @@
 package dev.toszek.tiara.items.catalog.internal;
 
 import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.CreateItemsCommand;
 import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
 import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import dev.toszek.tiara.items.catalog.dto.ItemCursorPageDto;
 import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.exception.InvalidCursorException;
+import dev.toszek.tiara.items.catalog.exception.InvalidSortException;
 import dev.toszek.tiara.items.catalog.exception.ItemNotFoundException;
+import dev.toszek.tiara.items.catalog.internal.cache.ItemByIdCache;
+import dev.toszek.tiara.items.catalog.internal.cache.ItemCacheNames;
+import dev.toszek.tiara.items.catalog.internal.cache.ItemCatalogChangeLog;
+import dev.toszek.tiara.items.catalog.internal.cache.ItemCountCache;
+import dev.toszek.tiara.items.catalog.internal.cache.ItemQueryCache;
+import dev.toszek.tiara.items.catalog.internal.columnar.ItemColumnStore;
 import dev.toszek.tiara.items.catalog.internal.entity.Item;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangeBatchEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.exporter.ItemExporter;
+import dev.toszek.tiara.items.catalog.internal.importer.ItemImporter;
 import dev.toszek.tiara.items.catalog.internal.mapper.ItemMapper;
 import dev.toszek.tiara.items.catalog.internal.mapper.ItemMapperImpl;
 import dev.toszek.tiara.items.catalog.internal.repository.ItemRepository;
+import dev.toszek.tiara.items.catalog.internal.search.ItemSearchIndex;
+import dev.toszek.tiara.items.catalog.internal.search.ItemSuggestIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
@@ -29,8 +51,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatNoException;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -42,11 +66,19 @@ class ItemCatalogApiTest {
     private ItemCatalogApi itemCatalogApi;
     private ItemRepository itemRepository;
     private ItemMapper itemMapper = new ItemMapperImpl();
+    private ApplicationEventPublisher eventPublisher;
 
     @BeforeEach
     void setUp() {
         itemRepository = mock(ItemRepository.class);
-        itemCatalogApi = new ItemCatalogApiImpl(itemRepository, itemMapper);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        CacheManager cacheManager = new ConcurrentMapCacheManager(ItemCacheNames.ITEM_COUNTS, ItemCacheNames.ITEM_QUERIES);
+        ItemCatalogChangeLog changeLog = new ItemCatalogChangeLog();
+        ItemByIdCache itemByIdCache = new ItemByIdCache(itemRepository, cacheManager, Runnable::run,
+                100, Duration.ofMinutes(10), Duration.ofMinutes(5), 100, Duration.ofMinutes(1));
+        itemCatalogApi = new ItemCatalogApiImpl(itemRepository, itemMapper, itemByIdCache,
+                new ItemCountCache(cacheManager, changeLog, true), new ItemQueryCache(cacheManager, changeLog), changeLog,
+                mock(ItemImporter.class), mock(ItemExporter.class), new ItemSearchIndex(), new ItemSuggestIndex(1000), new ItemColumnStore(), eventPublisher);
     }
 
     @Test
@@ -61,7 +93,7 @@ class ItemCatalogApiTest {
 
         // Verify the result
         assertThat(result)
-                .hasValue(new ItemDto(itemUuid, item.getName(), item.getDescription(), item.getPrice(), null, null));
+                .hasValue(new ItemDto(itemUuid, item.getName(), item.getDescription(), item.getPrice(), null, null, 0));
 
         // Verify the interaction with the mock
         verify(itemRepository, times(1)).findItemByUuid(itemUuid, ItemDto.class);
@@ -92,21 +124,142 @@ class ItemCatalogApiTest {
         Item item1 = new Item(UUID.randomUUID(), "Test Item1", "Description", BigDecimal.TEN);
         Item item2 = new Item(UUID.randomUUID(), "Test Item2", "Description", BigDecimal.TEN);
 
-        Pageable pageable = PageRequest.of(0, 10);
+        // unsorted listing is read in id order
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
         ItemFetchFilter filter = new ItemFetchFilter(null, null, null, null, null);
-        Page<Item> pageResult = new PageImpl<>(List.of(item1, item2));
-        when(itemRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(pageResult);
+        Slice<Item> sliceResult = new SliceImpl<>(List.of(item1, item2), pageable, false);
+        when(itemRepository.findSlice(any(Specification.class), eq(pageable))).thenReturn(sliceResult);
 
         // Test the method
-        Page<ItemDto> result = itemCatalogApi.findAllPageable(pageable, filter);
+        Page<ItemDto> result = itemCatalogApi.findAllPageable(PageRequest.of(0, 10), filter);
 
-        // Verify the result
+        // Verify the result, total is known from the content of the first page so no count query is needed
         assertThat(result)
                 .isNotNull()
                 .containsExactlyInAnyOrder(itemMapper.toDto(item1), itemMapper.toDto(item2));
+        assertThat(result.getTotalElements()).isEqualTo(2);
+
+        // Verify the interaction with the mock
+        verify(itemRepository, times(1)).findSlice(any(Specification.class), eq(pageable));
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    void testFindAllPageableUsesCachedTotal() {
+        // Mocking behavior, full page so total has to be counted
+        Item item1 = new Item(UUID.randomUUID(), "Test Item1", "Description", BigDecimal.TEN);
+        Item item2 = new Item(UUID.randomUUID(), "Test Item2", "Description", BigDecimal.TEN);
+
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id"));
+        Slice<Item> sliceResult = new SliceImpl<>(List.of(item1, item2), pageable, true);
+        when(itemRepository.findSlice(any(Specification.class), eq(pageable))).thenReturn(sliceResult);
+        when(itemRepository.count(any(Specification.class))).thenReturn(5L);
+
+        Pageable secondPageable = PageRequest.of(1, 2, Sort.by("id"));
+        when(itemRepository.findSlice(any(Specification.class), eq(secondPageable))).thenReturn(new SliceImpl<>(List.of(item1, item2), secondPageable, true));
+
+        // Test the method, equal filters written differently share cached total
+        Page<ItemDto> first = itemCatalogApi.findAllPageable(pageable, new ItemFetchFilter(null, null, new BigDecimal("10"), null, null));
+        Page<ItemDto> second = itemCatalogApi.findAllPageable(secondPageable, new ItemFetchFilter(null, null, new BigDecimal("10.00"), null, null));
+        Page<ItemDto> cachedFirst = itemCatalogApi.findAllPageable(pageable, new ItemFetchFilter(null, null, new BigDecimal("10.0"), null, null));
+
+        // Verify the result
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(second.getTotalElements()).isEqualTo(5);
+        assertThat(cachedFirst).isSameAs(first);
+
+        // Verify the interaction with the mock, second page is one round-trip only, repeated first page none
+        verify(itemRepository, times(1)).findSlice(any(Specification.class), eq(pageable));
+        verify(itemRepository, times(1)).findSlice(any(Specification.class), eq(secondPageable));
+        verify(itemRepository, times(1)).count(any(Specification.class));
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    void testFindAllSlice() {
+        // Mocking behavior
+        Item item1 = new Item(UUID.randomUUID(), "Test Item1", "Description", BigDecimal.TEN);
+
+        Pageable pageable = PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "price", "id"));
+        ItemFetchFilter filter = new ItemFetchFilter(null, null, null, null, null);
+        when(itemRepository.findSlice(any(Specification.class), eq(pageable))).thenReturn(new SliceImpl<>(List.of(item1), pageable, true));
+
+        // Test the method, id is added as tie-breaker
+        Slice<ItemDto> result = itemCatalogApi.findAllSlice(PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "price")), filter);
+
+        // Verify the result
+        assertThat(result)
+                .containsExactly(itemMapper.toDto(item1));
+        assertThat(result.hasNext()).isTrue();
+
+        // Verify the interaction with the mock, never counts
+        verify(itemRepository, times(1)).findSlice(any(Specification.class), eq(pageable));
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    void testFindAllByCursor() {
+        // Mocking behavior, repository returns one row more than requested when there is next page
+        Item item1 = new Item(UUID.randomUUID(), "Test Item1", "Description", BigDecimal.ONE);
+        item1.setId(1L);
+        Item item2 = new Item(UUID.randomUUID(), "Test Item2", "Description", BigDecimal.TWO);
+        item2.setId(2L);
+        Item item3 = new Item(UUID.randomUUID(), "Test Item3", "Description", BigDecimal.TEN);
+        item3.setId(3L);
+        ItemFetchFilter filter = new ItemFetchFilter(null, null, null, null, null);
+        when(itemRepository.findBy(any(Specification.class), any())).thenReturn(List.of(item1, item2, item3));
+
+        // Test the method, first page
+        ItemCursorPageDto firstPage = itemCatalogApi.findAllByCursor(null, 2, Sort.by("price"), filter);
+
+        // Verify the result
+        assertThat(firstPage.content())
+                .containsExactly(itemMapper.toDto(item1), itemMapper.toDto(item2));
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(firstPage.nextCursor()).isNotBlank();
+
+        // Test the method, last page
+        when(itemRepository.findBy(any(Specification.class), any())).thenReturn(List.of(item3));
+        ItemCursorPageDto lastPage = itemCatalogApi.findAllByCursor(firstPage.nextCursor(), 2, Sort.unsorted(), filter);
+
+        // Verify the result
+        assertThat(lastPage.content())
+                .containsExactly(itemMapper.toDto(item3));
+        assertThat(lastPage.hasNext()).isFalse();
+        assertThat(lastPage.nextCursor()).isNull();
+
+        // Verify the interaction with the mock
+        verify(itemRepository, times(2)).findBy(any(Specification.class), any());
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    void testFindAllByInvalidCursor() {
+        ItemFetchFilter filter = new ItemFetchFilter(null, null, null, null, null);
+
+        // Test the method and verify result
+        assertThatExceptionOfType(InvalidCursorException.class)
+                .isThrownBy(() -> itemCatalogApi.findAllByCursor("not a cursor", 10, Sort.unsorted(), filter));
+        assertThatExceptionOfType(InvalidCursorException.class)
+                .isThrownBy(() -> itemCatalogApi.findAllByCursor(null, 10, Sort.by("description"), filter));
+
+        // Verify the interaction with the mock
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    void testFindAllPageableRejectsUnindexedSort() {
+        ItemFetchFilter filter = new ItemFetchFilter(null, null, null, null, null);
+
+        // Test the method and verify result
+        assertThatExceptionOfType(InvalidSortException.class)
+                .isThrownBy(() -> itemCatalogApi.findAllPageable(PageRequest.of(0, 10, Sort.by("description")), filter));
+        assertThatExceptionOfType(InvalidSortException.class)
+                .isThrownBy(() -> itemCatalogApi.findAllSlice(PageRequest.of(0, 10, Sort.by("name", "price")), filter));
+        assertThatExceptionOfType(InvalidSortException.class)
+                .isThrownBy(() -> itemCatalogApi.findAllSlice(PageRequest.of(0, 10, Sort.by(Sort.Order.asc("name").ignoreCase())), filter));
 
         // Verify the interaction with the mock
-        verify(itemRepository, times(1)).findAll(any(Specification.class), eq(pageable));
         verifyNoMoreInteractions(itemRepository);
     }
 
@@ -135,6 +288,34 @@ class ItemCatalogApiTest {
         // Verify the interaction with the mock
         verify(itemRepository, times(1)).save(any(Item.class));
         verifyNoMoreInteractions(itemRepository);
+        verify(eventPublisher, times(1)).publishEvent(any(ItemChangedEvent.class));
+    }
+
+    @Test
+    void testCreateItems() {
+        // Prepare command
+        CreateItemsCommand createItemsCommand = new CreateItemsCommand(List.of(
+                new SaveItemCommand("Item 1", "Description", BigDecimal.ONE),
+                new SaveItemCommand("Item 2", "Description", BigDecimal.TEN)));
+
+        // Test the method
+        List<ItemDto> result = itemCatalogApi.createItems(createItemsCommand);
+
+        // Verify the result, every item gets its own uuid
+        assertThat(result)
+                .extracting(ItemDto::name)
+                .containsExactly("Item 1", "Item 2");
+        assertThat(result)
+                .extracting(ItemDto::uuid)
+                .doesNotContainNull()
+                .doesNotHaveDuplicates();
+
+        // Verify the interaction with the mock, all items are inserted at once
+        verify(itemRepository, times(1)).persistAll(any());
+        verifyNoMoreInteractions(itemRepository);
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) ->
+                event instanceof ItemChangeBatchEvent batch && batch.changes().size() == 2));
+        verify(eventPublisher, never()).publishEvent(any(ItemChangedEvent.class));
     }
 
     @Test
@@ -0,0 +1,84 @@
+package dev.toszek.tiara.items.catalog.internal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.toszek.tiara.items.BaseIntegrationTest;
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.internal.cache.ItemCacheNames;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemCatalogCacheTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ItemCatalogApi itemCatalogApi;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void clearState() {
+        clearH2Db();
+        cacheManager.getCache(ItemCacheNames.ITEMS_BY_ID).clear();
+    }
+
+    @Test
+    void readWriteMix_shouldKeepHighHitRatio() {
+        // Prepare items
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            uuids.add(itemCatalogApi.createItem(new SaveItemCommand("Item " + i, "Description", BigDecimal.TEN)).uuid());
+        }
+        cacheManager.getCache(ItemCacheNames.ITEMS_BY_ID).clear();
+        CacheStats before = getNativeCache().stats();
+
+        // 90% reads, 10% writes, with allEntries eviction every write emptied the whole cache
+        Random random = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            UUID uuid = uuids.get(random.nextInt(uuids.size()));
+            if (random.nextInt(10) == 0) {
+                itemCatalogApi.updateItem(uuid, new SaveItemCommand("Item " + i, "Description", BigDecimal.ONE));
+            } else {
+                assertThat(itemCatalogApi.findById(uuid)).isPresent();
+            }
+        }
+
+        CacheStats stats = getNativeCache().stats().minus(before);
+        // only the first read of each item may miss, updates write through
+        assertThat(stats.missCount()).isLessThanOrEqualTo(uuids.size());
+        assertThat(stats.hitRate()).isGreaterThan(0.95);
+    }
+
+    @Test
+    void updateAndDelete_shouldKeepCacheConsistent() {
+        ItemDto item = itemCatalogApi.createItem(new SaveItemCommand("Item", "Description", BigDecimal.TEN));
+        ItemDto other = itemCatalogApi.createItem(new SaveItemCommand("Other", "Description", BigDecimal.TEN));
+        assertThat(itemCatalogApi.findById(other.uuid())).isPresent();
+
+        itemCatalogApi.updateItem(item.uuid(), new SaveItemCommand("Updated", "Description", BigDecimal.ONE));
+        assertThat(itemCatalogApi.findById(item.uuid()))
+                .hasValueSatisfying(found -> assertThat(found.name()).isEqualTo("Updated"));
+
+        // delete evicts only the affected key
+        itemCatalogApi.deleteItem(item.uuid());
+        assertThat(itemCatalogApi.findById(item.uuid())).isEmpty();
+        assertThat(getNativeCache().getIfPresent(other.uuid())).isNotNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> getNativeCache() {
+        return (Cache<Object, Object>) cacheManager.getCache(ItemCacheNames.ITEMS_BY_ID).getNativeCache();
+    }
+}
@@ -0,0 +1,135 @@
+package dev.toszek.tiara.items.catalog.internal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.toszek.tiara.items.Application;
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.CreateItemsCommand;
+import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.internal.entity.Item;
+import dev.toszek.tiara.items.catalog.internal.mapper.ItemMapper;
+import dev.toszek.tiara.items.catalog.internal.repository.ItemRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Per call cost of catalog hot paths: mapping, item read by uuid as projection against entity load with mapping,
+ * translation of filter specification into a query and JSON serialization of responses.
+ * Beans are taken from the running application, so they are configured as in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ItemCatalogHotPathBenchmark {
+    private static final int ITEMS = 10_000;
+    private static final ItemFetchFilter FILTER = new ItemFetchFilter("Item 1%", "%blue%", null, new BigDecimal("50"), new BigDecimal("5"));
+
+    private ConfigurableApplicationContext context;
+    private ItemMapper itemMapper;
+    private ItemRepository itemRepository;
+    private EntityManager entityManager;
+    private ObjectMapper objectMapper;
+    private List<UUID> uuids;
+    private int next;
+    private Item item;
+    private ItemDto itemDto;
+    private Page<ItemDto> page;
+    private SaveItemCommand saveItemCommand;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(Application.class)
+                .properties("server.port=0")
+                .run();
+        itemMapper = context.getBean(ItemMapper.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        final List<ItemDto> created = context.getBean(ItemCatalogApi.class).createItems(new CreateItemsCommand(IntStream.range(0, ITEMS)
+                .mapToObj(i -> new SaveItemCommand("Item " + i, i % 2 == 0 ? "Blue item" : "Red item", BigDecimal.valueOf(i % 10_000, 2)))
+                .toList()));
+        uuids = created.stream().map(ItemDto::uuid).toList();
+        item = itemRepository.findItemByUuid(uuids.get(0)).orElseThrow();
+        itemDto = created.get(0);
+        page = new PageImpl<>(created.subList(0, 20), PageRequest.of(0, 20), ITEMS);
+        saveItemCommand = new SaveItemCommand("Item", "Description of the item", new BigDecimal("19.99"));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public ItemDto mapperToDto() {
+        return itemMapper.toDto(item);
+    }
+
+    @Benchmark
+    public Item mapperFromCreateCommand() {
+        return itemMapper.fromCreateCommand(saveItemCommand, itemDto.uuid());
+    }
+
+    @Benchmark
+    public Optional<ItemDto> findByUuidAsProjection() {
+        return itemRepository.findItemByUuid(nextUuid(), ItemDto.class);
+    }
+
+    @Benchmark
+    public Optional<ItemDto> findByUuidAsEntityAndMap() {
+        return itemRepository.findItemByUuid(nextUuid()).map(itemMapper::toDto);
+    }
+
+    @Benchmark
+    public TypedQuery<Item> specificationToQuery() {
+        final CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Item> query = criteriaBuilder.createQuery(Item.class);
+        final Root<Item> root = query.from(Item.class);
+        query.where(ItemCatalogApiImpl.getItemSpecification(FILTER).toPredicate(root, query, criteriaBuilder));
+        return entityManager.createQuery(query);
+    }
+
+    @Benchmark
+    public byte[] serializeItem() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(itemDto);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    private UUID nextUuid() {
+        next = next + 1 == uuids.size() ? 0 : next + 1;
+        return uuids.get(next);
+    }
+}
@@ -0,0 +1,56 @@
+package dev.toszek.tiara.items.catalog.internal;
+
+import dev.toszek.tiara.items.Application;
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.CreateItemsCommand;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Database that already has items when the id sequence migration runs, like one created before batched inserts.
+ */
+class ItemIdSequenceTest {
+    private static final String INSERT_SQL = "INSERT INTO item (id, uuid, name, description, price, version, creation_date) "
+            + "VALUES (?, ?, 'Existing', 'Description', 1, 0, CURRENT_TIMESTAMP)";
+
+    @Test
+    void createItems_shouldNotReuseExistingIds() {
+        try (ConfigurableApplicationContext context = start()) {
+            final JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            for (long id : new long[]{1, 7, 30}) {
+                jdbcTemplate.update(INSERT_SQL, id, UUID.randomUUID());
+            }
+            // let the next start run the migration again, now over existing rows
+            jdbcTemplate.update("DELETE FROM databasechangelog WHERE id = '006: Item id sequence start for pooled ids'");
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            final List<SaveItemCommand> commands = IntStream.range(0, 120)
+                    .mapToObj(i -> new SaveItemCommand("New " + i, "Description", BigDecimal.ONE))
+                    .toList();
+            context.getBean(ItemCatalogApi.class).createItems(new CreateItemsCommand(commands));
+
+            final JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Integer.class)).isEqualTo(123);
+            assertThat(jdbcTemplate.queryForObject("SELECT MIN(id) FROM item WHERE name LIKE 'New%'", Long.class)).isGreaterThan(30);
+        }
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(Application.class)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:item-id-sequence;DB_CLOSE_DELAY=-1",
+                        "app.cache.coherence.enabled=false")
+                .run();
+    }
+}
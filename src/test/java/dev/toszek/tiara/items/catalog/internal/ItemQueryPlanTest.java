@@ -0,0 +1,138 @@
+package dev.toszek.tiara.items.catalog.internal;
+
+import dev.toszek.tiara.items.BaseIntegrationTest;
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.CreateItemsCommand;
+import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards access paths of item listings: runs EXPLAIN for SQL of every combination of {@link ItemFetchFilter} criteria
+ * with every sortable field and fails when a plan reads the whole table and sorts it. Plan is fine when its index
+ * has a condition, or when the index returns rows already in requested order, so reading stops after one page.
+ * <p>
+ * Only ascending order is checked, H2 does not read indexes backwards, descending listings sort matching rows.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=dev.toszek.tiara.items.catalog.internal.ItemQueryPlanTest$CapturingStatementInspector")
+class ItemQueryPlanTest extends BaseIntegrationTest {
+    private static final int PAGE_SIZE = 20;
+    // comment H2 puts after table in the plan: /* PUBLIC.INDEX_NAME: CONDITIONS */ or /* PUBLIC.ITEM.tableScan */
+    private static final Pattern TABLE_ACCESS = Pattern.compile("ITEM\"?\\s+\"?\\w+\"?\\s*/\\*\\s*([^*]+?)\\s*\\*/");
+    private static final String INDEX_SORTED = "/* index sorted */";
+
+    @Autowired
+    private ItemCatalogApi itemCatalogApi;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void prepareItems() {
+        clearH2Db();
+        // enough rows with realistic selectivity, so planner does not prefer scans of a tiny table
+        itemCatalogApi.createItems(new CreateItemsCommand(IntStream.range(0, 5_000)
+                .mapToObj(i -> new SaveItemCommand("Item " + i, i % 2 == 0 ? "Blue item" : "Red item", BigDecimal.valueOf(i % 1000, 1)))
+                .toList()));
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void listingQueries_shouldNotScanWholeTable() {
+        final List<String> fullScans = new ArrayList<>();
+        for (ItemFetchFilter filter : filterCombinations()) {
+            for (ItemSortField sortField : ItemSortField.values()) {
+                final Sort sort = Sort.by(sortField.getProperty());
+                final String sql = CapturingStatementInspector.capture(() ->
+                        itemCatalogApi.findAllSlice(PageRequest.of(0, PAGE_SIZE, sort), filter));
+                final String plan = explain(sql, filter);
+                if (isFullScan(plan)) {
+                    fullScans.add(filter + " sorted by " + sortField.getProperty() + ":\n" + plan);
+                }
+            }
+        }
+
+        assertThat(fullScans).isEmpty();
+    }
+
+    @Test
+    void isFullScan_shouldDetectSortedScan() {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT * FROM item i1_0 ORDER BY i1_0.description", String.class);
+
+        assertThat(isFullScan(plan)).as(plan).isTrue();
+    }
+
+    private static List<ItemFetchFilter> filterCombinations() {
+        // every subset of criteria, name is a prefix pattern, description can only be matched by scanning
+        return IntStream.range(0, 1 << 5)
+                .mapToObj(mask -> new ItemFetchFilter(
+                        (mask & 1) != 0 ? "Item 1%" : null,
+                        (mask & 2) != 0 ? "%Blue%" : null,
+                        (mask & 4) != 0 ? new BigDecimal("10.0") : null,
+                        (mask & 8) != 0 ? new BigDecimal("50") : null,
+                        (mask & 16) != 0 ? new BigDecimal("5") : null))
+                .toList();
+    }
+
+    private String explain(final String sql, final ItemFetchFilter filter) {
+        // predicates are bound in order of criteria in the filter, remaining parameters are limit and offset
+        final List<Object> parameters = new ArrayList<>(Stream.of(filter.name(), filter.description(), filter.price(),
+                        filter.lessThenPrice(), filter.greaterThanPrice())
+                .filter(Objects::nonNull)
+                .toList());
+        while (parameters.size() < sql.chars().filter(c -> c == '?').count()) {
+            parameters.add(PAGE_SIZE + 1);
+        }
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters.toArray());
+    }
+
+    private static boolean isFullScan(final String plan) {
+        final Matcher access = TABLE_ACCESS.matcher(plan);
+        assertThat(access.find()).as("table access in plan " + plan).isTrue();
+        final String index = access.group(1);
+        final boolean hasCondition = !index.endsWith(".tableScan") && index.contains(":");
+        return !hasCondition && !plan.contains(INDEX_SORTED);
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+        private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+        static String capture(final Runnable query) {
+            STATEMENTS.set(new ArrayList<>());
+            try {
+                query.run();
+                assertThat(STATEMENTS.get()).hasSize(1);
+                return STATEMENTS.get().get(0);
+            } finally {
+                STATEMENTS.remove();
+            }
+        }
+
+        @Override
+        public String inspect(final String sql) {
+            final List<String> statements = STATEMENTS.get();
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package dev.toszek.tiara.items.catalog.internal;
+
+import dev.toszek.tiara.items.BaseIntegrationTest;
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.CreateItemsCommand;
+import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of free-text search, inverted index against {@code LIKE '%word%'} filter on description.
+ * Not part of regular build, run with {@code mvn test -Pbenchmark}, item count with {@code -Dbenchmark.items}.
+ */
+@Slf4j
+@Tag("benchmark")
+class ItemSearchBenchmarkTest extends BaseIntegrationTest {
+    private static final int ITEMS = Integer.getInteger("benchmark.items", 1_000_000);
+    private static final int QUERIES = 50;
+    private static final List<String> WORDS = List.of("red", "blue", "green", "wooden", "steel", "garden", "kitchen",
+            "chair", "table", "lamp", "hose", "knife", "shelf", "mirror", "rug", "vase", "clock", "basket", "bowl", "pan");
+
+    @Autowired
+    private ItemCatalogApi itemCatalogApi;
+
+    @BeforeEach
+    void prepareItems() {
+        clearH2Db();
+        final Random random = new Random(42);
+        for (int created = 0; created < ITEMS; created += CreateItemsCommand.MAX_ITEMS) {
+            itemCatalogApi.createItems(new CreateItemsCommand(IntStream.range(0, Math.min(CreateItemsCommand.MAX_ITEMS, ITEMS - created))
+                    .mapToObj(i -> new SaveItemCommand(words(random, 2), words(random, 8), BigDecimal.valueOf(random.nextInt(10_000), 2)))
+                    .toList()));
+        }
+    }
+
+    @Test
+    void search_againstLikeFilter() {
+        final Random random = new Random(7);
+        final List<String> words = IntStream.range(0, QUERIES).mapToObj(i -> WORDS.get(random.nextInt(WORDS.size()))).toList();
+        final PageRequest page = PageRequest.of(0, 20);
+
+        // slice, so LIKE path pays for the scan but neither count query nor caches hide it
+        final double likeMillis = averageMillis(words, word ->
+                () -> itemCatalogApi.findAllSlice(page, new ItemFetchFilter(null, "%" + word + "%", null, null, null)).getContent());
+        final double searchMillis = averageMillis(words, word ->
+                () -> itemCatalogApi.search(word, page).getContent());
+
+        log.info("Search in {} items: LIKE {} ms/query, inverted index {} ms/query",
+                ITEMS, String.format("%.2f", likeMillis), String.format("%.2f", searchMillis));
+        assertThat(searchMillis).isLessThan(likeMillis);
+    }
+
+    private static double averageMillis(final List<String> words, final Function<String, Supplier<List<?>>> query) {
+        // first round warms up
+        words.forEach(word -> query.apply(word).get());
+        final long start = System.nanoTime();
+        words.forEach(word -> assertThat(query.apply(word).get()).isNotEmpty());
+        return (System.nanoTime() - start) / 1_000_000.0 / words.size();
+    }
+
+    private static String words(final Random random, final int count) {
+        return String.join(" ", IntStream.range(0, count).mapToObj(i -> WORDS.get(random.nextInt(WORDS.size()))).toList());
+    }
+}
@@ -0,0 +1,223 @@
+package dev.toszek.tiara.items.catalog.internal.cache;
+
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangeBatchEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.event.ItemsChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemByIdCacheTest {
+
+    private ItemRepository itemRepository;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+    }
+
+    @Test
+    void concurrentMisses_shouldRunOneQuery() throws Exception {
+        // Mocking behavior, slow query so that all readers miss at the same time
+        UUID uuid = UUID.randomUUID();
+        ItemDto item = item(uuid, "Item");
+        when(itemRepository.findItemByUuid(uuid, ItemDto.class)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return Optional.of(item);
+        });
+        ItemByIdCache itemByIdCache = new ItemByIdCache(itemRepository, new ConcurrentMapCacheManager(), Runnable::run,
+                100, Duration.ofMinutes(10), Duration.ofMinutes(5), 100, Duration.ofMinutes(1));
+
+        // Test the method, N simultaneous misses
+        int readers = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ItemDto>> results = new ArrayList<>();
+        for (int i = 0; i < readers; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return itemByIdCache.get(uuid);
+            }));
+        }
+        start.countDown();
+
+        // Verify the result, every waiter got the value of the single query
+        for (Future<ItemDto> result : results) {
+            assertThat(result.get()).isEqualTo(item);
+        }
+        executor.shutdown();
+        verify(itemRepository, times(1)).findItemByUuid(uuid, ItemDto.class);
+    }
+
+    @Test
+    void hotEntry_shouldBeRefreshedBeforeExpiry() {
+        // Mocking behavior
+        UUID uuid = UUID.randomUUID();
+        when(itemRepository.findItemByUuid(uuid, ItemDto.class))
+                .thenReturn(Optional.of(item(uuid, "Old")))
+                .thenReturn(Optional.of(item(uuid, "New")));
+        AtomicLong nanos = new AtomicLong();
+        List<Runnable> backgroundTasks = new ArrayList<>();
+        ItemByIdCache itemByIdCache = new ItemByIdCache(itemRepository, new ConcurrentMapCacheManager(), backgroundTasks::add,
+                100, Duration.ofMinutes(10), Duration.ofMinutes(5), 100, Duration.ofMinutes(1), nanos::get);
+
+        assertThat(itemByIdCache.get(uuid).name()).isEqualTo("Old");
+
+        // after refresh period the read is still served from cache and schedules reload
+        nanos.addAndGet(Duration.ofMinutes(6).toNanos());
+        assertThat(itemByIdCache.get(uuid).name()).isEqualTo("Old");
+        new ArrayList<>(backgroundTasks).forEach(Runnable::run);
+        assertThat(itemByIdCache.get(uuid).name()).isEqualTo("New");
+        verify(itemRepository, times(2)).findItemByUuid(uuid, ItemDto.class);
+    }
+
+    @Test
+    void unknownItem_shouldBeAnsweredFromCache() {
+        // Mocking behavior
+        UUID uuid = UUID.randomUUID();
+        when(itemRepository.findItemByUuid(uuid, ItemDto.class)).thenReturn(Optional.empty());
+        ItemByIdCache itemByIdCache = newCache();
+
+        // Test the method
+        assertThat(itemByIdCache.get(uuid)).isNull();
+        assertThat(itemByIdCache.get(uuid)).isNull();
+        assertThat(itemByIdCache.get(uuid)).isNull();
+
+        verify(itemRepository, times(1)).findItemByUuid(uuid, ItemDto.class);
+    }
+
+    @Test
+    void unknownItem_shouldBeVisibleOnceCreated() {
+        // Mocking behavior
+        UUID uuid = UUID.randomUUID();
+        ItemDto created = item(uuid, "Created");
+        when(itemRepository.findItemByUuid(uuid, ItemDto.class)).thenReturn(Optional.empty());
+        ItemByIdCache itemByIdCache = newCache();
+        assertThat(itemByIdCache.get(uuid)).isNull();
+
+        // Test the method
+        itemByIdCache.onItemChanged(ItemChangedEvent.created(1L, created));
+
+        assertThat(itemByIdCache.get(uuid)).isEqualTo(created);
+    }
+
+    @Test
+    void unknownItem_shouldBeReloadedAfterRemoteChange() {
+        // Mocking behavior
+        UUID uuid = UUID.randomUUID();
+        ItemDto created = item(uuid, "Created");
+        when(itemRepository.findItemByUuid(uuid, ItemDto.class))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(created));
+        ItemByIdCache itemByIdCache = newCache();
+        assertThat(itemByIdCache.get(uuid)).isNull();
+
+        // Test the method
+        itemByIdCache.onItemsChanged(ItemsChangedEvent.remote(List.of(uuid)));
+
+        assertThat(itemByIdCache.get(uuid)).isEqualTo(created);
+    }
+
+    @Test
+    void missBeforeConcurrentCreate_shouldNotBeRemembered() throws Exception {
+        // Mocking behavior, item is created and its event published while the lookup is still running
+        UUID uuid = UUID.randomUUID();
+        ItemDto created = item(uuid, "Created");
+        AtomicReference<ItemByIdCache> cacheRef = new AtomicReference<>();
+        AtomicReference<Thread> writer = new AtomicReference<>();
+        when(itemRepository.findItemByUuid(uuid, ItemDto.class)).thenAnswer(invocation -> {
+            writer.set(Thread.startVirtualThread(() -> cacheRef.get().onItemChanged(ItemChangedEvent.created(1L, created))));
+            Thread.sleep(200);
+            return Optional.empty();
+        });
+        ItemByIdCache itemByIdCache = newCache();
+        cacheRef.set(itemByIdCache);
+
+        // Test the method
+        assertThat(itemByIdCache.get(uuid)).isNull();
+        writer.get().join();
+
+        assertThat(itemByIdCache.get(uuid)).isEqualTo(created);
+    }
+
+    @Test
+    void getAll_shouldLoadMissesWithOneQuery() {
+        // Mocking behavior, one item cached, one in database, one unknown
+        UUID cachedUuid = UUID.randomUUID();
+        UUID storedUuid = UUID.randomUUID();
+        UUID unknownUuid = UUID.randomUUID();
+        ItemDto cached = item(cachedUuid, "Cached");
+        ItemDto stored = item(storedUuid, "Stored");
+        when(itemRepository.findByUuidIn(anyCollection(), eq(ItemDto.class))).thenReturn(List.of(stored));
+        ItemByIdCache itemByIdCache = newCache();
+        itemByIdCache.onItemChanged(ItemChangedEvent.created(1L, cached));
+
+        // Test the method
+        Map<UUID, ItemDto> items = itemByIdCache.getAll(List.of(cachedUuid, storedUuid, unknownUuid));
+
+        assertThat(items).containsOnly(Map.entry(cachedUuid, cached), Map.entry(storedUuid, stored));
+        verify(itemRepository, times(1)).findByUuidIn(Set.of(storedUuid, unknownUuid), ItemDto.class);
+
+        // loaded and missing items are cached as well
+        assertThat(itemByIdCache.getAll(List.of(cachedUuid, storedUuid, unknownUuid))).hasSize(2);
+        assertThat(itemByIdCache.get(unknownUuid)).isNull();
+        verify(itemRepository, times(1)).findByUuidIn(anyCollection(), eq(ItemDto.class));
+        verify(itemRepository, never()).findItemByUuid(any(), eq(ItemDto.class));
+    }
+
+    @Test
+    void changeBatch_shouldBeWrittenThrough() {
+        // Mocking behavior, one item cached before, one unknown
+        UUID deletedUuid = UUID.randomUUID();
+        UUID createdUuid = UUID.randomUUID();
+        ItemDto deleted = item(deletedUuid, "Deleted");
+        ItemDto created = item(createdUuid, "Created");
+        when(itemRepository.findItemByUuid(createdUuid, ItemDto.class)).thenReturn(Optional.empty());
+        ItemByIdCache itemByIdCache = newCache();
+        itemByIdCache.onItemChanged(ItemChangedEvent.created(1L, deleted));
+        assertThat(itemByIdCache.get(createdUuid)).isNull();
+
+        // Test the method
+        itemByIdCache.onItemChangeBatch(new ItemChangeBatchEvent(List.of(
+                ItemChangedEvent.deleted(1L, deleted), ItemChangedEvent.created(2L, created))));
+
+        assertThat(itemByIdCache.get(createdUuid)).isEqualTo(created);
+        verify(itemRepository, times(1)).findItemByUuid(createdUuid, ItemDto.class);
+    }
+
+    private ItemByIdCache newCache() {
+        return new ItemByIdCache(itemRepository, new ConcurrentMapCacheManager(), Runnable::run,
+                100, Duration.ofMinutes(10), Duration.ofMinutes(5), 100, Duration.ofMinutes(1));
+    }
+
+    private static ItemDto item(UUID uuid, String name) {
+        return new ItemDto(uuid, name, "Description", BigDecimal.TEN, null, null, 0);
+    }
+}
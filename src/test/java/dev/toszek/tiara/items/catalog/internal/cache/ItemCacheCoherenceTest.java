@@ -0,0 +1,111 @@
+package dev.toszek.tiara.items.catalog.internal.cache;
+
+import dev.toszek.tiara.items.Application;
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application instances sharing one database, like replicas of the service do. Staleness of each change
+ * on the other instance and the polling it took are logged.
+ */
+@Slf4j
+class ItemCacheCoherenceTest {
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private ConfigurableApplicationContext instanceA;
+    private ConfigurableApplicationContext instanceB;
+
+    @BeforeEach
+    void startInstances() {
+        instanceA = startInstance();
+        instanceB = startInstance();
+    }
+
+    @AfterEach
+    void stopInstances() {
+        instanceB.close();
+        instanceA.close();
+    }
+
+    @Test
+    void changesOnOneInstance_shouldBecomeVisibleOnOther() {
+        ItemCatalogApi apiA = instanceA.getBean(ItemCatalogApi.class);
+        ItemCatalogApi apiB = instanceB.getBean(ItemCatalogApi.class);
+        ItemFetchFilter filter = new ItemFetchFilter("Coherent%", null, null, null, null);
+
+        // instance B caches item and listing
+        ItemDto item = apiA.createItem(new SaveItemCommand("Coherent item", "Description", BigDecimal.TEN));
+        assertThat(apiB.findById(item.uuid())).isPresent();
+        assertThat(apiB.findAllPageable(PageRequest.of(0, 10), filter).getTotalElements()).isEqualTo(1);
+
+        // update on instance A
+        ItemCacheInvalidationLog invalidationLogB = instanceB.getBean(ItemCacheInvalidationLog.class);
+        long pollsBefore = invalidationLogB.getPollCount();
+        long rowsReadBefore = invalidationLogB.getRowsRead();
+        long start = System.nanoTime();
+        apiA.updateItem(item.uuid(), new SaveItemCommand("Coherent item v2", "Description", BigDecimal.ONE));
+        Duration itemStaleness = awaitOnB(() -> apiB.findById(item.uuid()).map(found -> found.name().equals("Coherent item v2")).orElse(false), start);
+
+        // create on instance A
+        start = System.nanoTime();
+        apiA.createItem(new SaveItemCommand("Coherent other", "Description", BigDecimal.TEN));
+        Duration listingStaleness = awaitOnB(() -> apiB.findAllPageable(PageRequest.of(0, 10), filter).getTotalElements() == 2, start);
+
+        // delete on instance A
+        start = System.nanoTime();
+        apiA.deleteItem(item.uuid());
+        Duration deleteStaleness = awaitOnB(() -> apiB.findById(item.uuid()).isEmpty(), start);
+
+        long polls = invalidationLogB.getPollCount() - pollsBefore;
+        long rowsRead = invalidationLogB.getRowsRead() - rowsReadBefore;
+        log.info("Staleness on other instance: update {} ms, create {} ms, delete {} ms; polls {} (1 query each), {} rows read, poll interval {} ms",
+                itemStaleness.toMillis(), listingStaleness.toMillis(), deleteStaleness.toMillis(), polls, rowsRead, POLL_INTERVAL_MS);
+
+        // loose bound, a change should be seen within a few polls, the rest is slack for loaded machines
+        Duration maxStaleness = Duration.ofMillis(POLL_INTERVAL_MS * 50);
+        assertThat(itemStaleness).isLessThan(maxStaleness);
+        assertThat(listingStaleness).isLessThan(maxStaleness);
+        assertThat(deleteStaleness).isLessThan(maxStaleness);
+        // every change is one row, read once by a poll
+        assertThat(polls).isPositive();
+        assertThat(rowsRead).isGreaterThanOrEqualTo(3);
+    }
+
+    private static Duration awaitOnB(BooleanSupplier condition, long startNanos) {
+        long deadline = startNanos + Duration.ofSeconds(30).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("change did not propagate in time").isNegative();
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    private static ConfigurableApplicationContext startInstance() {
+        return new SpringApplicationBuilder(Application.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:coherence;DB_CLOSE_DELAY=-1",
+                        "app.cache.coherence.poll-interval-ms=" + POLL_INTERVAL_MS)
+                .run();
+    }
+}
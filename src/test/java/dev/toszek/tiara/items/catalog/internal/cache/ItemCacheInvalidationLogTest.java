@@ -0,0 +1,56 @@
+package dev.toszek.tiara.items.catalog.internal.cache;
+
+import dev.toszek.tiara.items.BaseIntegrationTest;
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemCacheInvalidationLogTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ItemCatalogApi itemCatalogApi;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void clearDatabaseState() {
+        clearH2Db();
+    }
+
+    @Test
+    void committedChange_shouldBeLoggedInItsTransaction() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            itemCatalogApi.createItem(new SaveItemCommand("First", "Description", BigDecimal.ONE));
+            itemCatalogApi.createItem(new SaveItemCommand("Second", "Description", BigDecimal.ONE));
+        });
+
+        assertThat(invalidationRows()).isEqualTo(2);
+    }
+
+    @Test
+    void rolledBackChange_shouldNotBeLogged() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            itemCatalogApi.createItem(new SaveItemCommand("Rolled back", "Description", BigDecimal.ONE));
+            status.setRollbackOnly();
+        });
+
+        assertThat(invalidationRows()).isZero();
+    }
+
+    private Integer invalidationRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item_cache_invalidation", Integer.class);
+    }
+}
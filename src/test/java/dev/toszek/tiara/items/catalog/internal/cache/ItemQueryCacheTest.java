@@ -0,0 +1,92 @@
+package dev.toszek.tiara.items.catalog.internal.cache;
+
+import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemQueryCacheTest {
+
+    private final Pageable pageable = PageRequest.of(0, 10);
+    private ItemCatalogChangeLog changeLog;
+    private ItemQueryCache itemQueryCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        changeLog = new ItemCatalogChangeLog(4);
+        itemQueryCache = new ItemQueryCache(new ConcurrentMapCacheManager(ItemCacheNames.ITEM_QUERIES), changeLog);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testChangeOutsideOfFilterKeepsEntry() {
+        ItemFetchFilter cheapItems = new ItemFetchFilter(null, null, null, BigDecimal.TEN, null);
+        itemQueryCache.get(cheapItems, pageable, loader());
+
+        // expensive item created and repriced, still expensive
+        ItemDto expensive = item("Expensive", "100");
+        changeLog.onItemChanged(ItemChangedEvent.created(1L, expensive));
+        changeLog.onItemChanged(ItemChangedEvent.updated(1L, expensive, item("Expensive", "200")));
+        itemQueryCache.get(cheapItems, pageable, loader());
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void testChangeMatchingFilterInvalidatesEntry() {
+        ItemFetchFilter namedA = new ItemFetchFilter("A%", null, null, null, null);
+        itemQueryCache.get(namedA, pageable, loader());
+
+        // item renamed so that it leaves the result
+        changeLog.onItemChanged(ItemChangedEvent.updated(2L, item("Apple", "1"), item("Banana", "1")));
+        itemQueryCache.get(namedA, pageable, loader());
+        itemQueryCache.get(namedA, pageable, loader());
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void testUnknownChangeAndLogOverflowInvalidateEntry() {
+        ItemFetchFilter noFilter = new ItemFetchFilter(null, null, null, null, null);
+        ItemFetchFilter namedA = new ItemFetchFilter("A%", null, null, null, null);
+        itemQueryCache.get(noFilter, pageable, loader());
+        itemQueryCache.get(namedA, pageable, loader());
+
+        changeLog.recordUnknownChange();
+        itemQueryCache.get(noFilter, pageable, loader());
+        assertThat(loads).hasValue(3);
+
+        // more non matching changes than the log can hold
+        for (int i = 0; i < 5; i++) {
+            changeLog.onItemChanged(ItemChangedEvent.created(3L, item("Banana", "1")));
+        }
+        itemQueryCache.get(namedA, pageable, loader());
+        assertThat(loads).hasValue(4);
+    }
+
+    private Supplier<Page<ItemDto>> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return new PageImpl<>(List.of());
+        };
+    }
+
+    private static ItemDto item(String name, String price) {
+        return new ItemDto(UUID.randomUUID(), name, "Description", new BigDecimal(price), null, null, 0);
+    }
+}
@@ -0,0 +1,99 @@
+package dev.toszek.tiara.items.catalog.internal.columnar;
+
+import dev.toszek.tiara.items.Application;
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.CreateItemsCommand;
+import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * One page of a filtered listing from {@link ItemColumnStore} against the same page read from the database.
+ * Database side uses {@link ItemCatalogApi#findAllSlice}, which has no count query and no cache, so it is favoured
+ * over a real paged listing. Started by {@link ItemColumnStoreBenchmarkTest}.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ItemColumnStoreBenchmark {
+    private static final List<String> WORDS = List.of("red", "blue", "green", "wooden", "steel", "garden", "kitchen",
+            "chair", "table", "lamp", "hose", "knife", "shelf", "mirror", "rug", "vase", "clock", "basket", "bowl", "pan");
+    private static final Map<String, ItemFetchFilter> FILTERS = Map.of(
+            "priceRange", new ItemFetchFilter(null, null, null, new BigDecimal("12.50"), new BigDecimal("12.00")),
+            "namePrefix", new ItemFetchFilter("kitchen%", null, null, null, null),
+            "descriptionAndPrice", new ItemFetchFilter(null, "%lamp%", null, new BigDecimal("20"), null));
+
+    @Param({"priceRange", "namePrefix", "descriptionAndPrice"})
+    public String filter;
+
+    @Param({"price", "name"})
+    public String sort;
+
+    private ConfigurableApplicationContext context;
+    private ItemCatalogApi itemCatalogApi;
+    private ItemFetchFilter itemFetchFilter;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(Application.class)
+                .properties("app.catalog.columnar.enabled=true", "server.port=0")
+                .run();
+        itemCatalogApi = context.getBean(ItemCatalogApi.class);
+        final int items = Integer.getInteger("benchmark.items", 1_000_000);
+        final Random random = new Random(42);
+        for (int created = 0; created < items; created += CreateItemsCommand.MAX_ITEMS) {
+            itemCatalogApi.createItems(new CreateItemsCommand(IntStream.range(0, Math.min(CreateItemsCommand.MAX_ITEMS, items - created))
+                    .mapToObj(i -> new SaveItemCommand(words(random, 2), words(random, 8), BigDecimal.valueOf(random.nextInt(10_000), 2)))
+                    .toList()));
+        }
+        itemFetchFilter = FILTERS.get(filter);
+        pageable = PageRequest.of(0, 20, Sort.by(sort));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        final ItemColumnStore store = context.getBean(ItemColumnStore.class);
+        log.info("Column store: {} items, ~{} bytes per item", store.size(), store.estimatedBytes() / Math.max(1, store.size()));
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDto> columnar() {
+        return itemCatalogApi.findAllPageable(pageable, itemFetchFilter).getContent();
+    }
+
+    @Benchmark
+    public List<ItemDto> jpa() {
+        return itemCatalogApi.findAllSlice(pageable, itemFetchFilter).getContent();
+    }
+
+    private static String words(final Random random, final int count) {
+        return IntStream.range(0, count).mapToObj(i -> WORDS.get(random.nextInt(WORDS.size()))).collect(Collectors.joining(" "));
+    }
+}
@@ -0,0 +1,21 @@
+package dev.toszek.tiara.items.catalog.internal.columnar;
+
+import dev.toszek.tiara.items.JmhRunner;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link ItemColumnStoreBenchmark}, allocated bytes per listing are in {@code gc.alloc.rate.norm},
+ * bytes per stored item are logged by the benchmark.
+ * Not part of regular build, run with {@code mvn test -Pbenchmark}, item count with {@code -Dbenchmark.items}.
+ */
+@Tag("benchmark")
+class ItemColumnStoreBenchmarkTest {
+
+    @Test
+    void findAll_columnarAgainstJpa() throws Exception {
+        assertThat(JmhRunner.run("columnar-listing", ItemColumnStoreBenchmark.class)).isNotEmpty();
+    }
+}
@@ -0,0 +1,92 @@
+package dev.toszek.tiara.items.catalog.internal.columnar;
+
+import dev.toszek.tiara.items.BaseIntegrationTest;
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.command.BulkDeleteItemsCommand;
+import dev.toszek.tiara.items.catalog.command.BulkUpdatePriceCommand;
+import dev.toszek.tiara.items.catalog.command.CreateItemsCommand;
+import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.command.SaveItemCommand;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pages served by the column store have to be the same as the database returns for the same query.
+ */
+@TestPropertySource(properties = "app.catalog.columnar.enabled=true")
+class ItemColumnStoreIntegrationTest extends BaseIntegrationTest {
+    private static final List<ItemFetchFilter> FILTERS = List.of(
+            new ItemFetchFilter(null, null, null, null, null),
+            new ItemFetchFilter("Item 1%", null, null, null, null),
+            new ItemFetchFilter(null, "%Blue%", null, new BigDecimal("50"), null),
+            new ItemFetchFilter(null, null, new BigDecimal("10.00"), null, null),
+            new ItemFetchFilter("Item%", "Red%", null, new BigDecimal("80.5"), new BigDecimal("20")));
+
+    @Autowired
+    private ItemCatalogApi itemCatalogApi;
+
+    @Autowired
+    private ItemColumnStore itemColumnStore;
+
+    private List<ItemDto> items;
+
+    @BeforeEach
+    void prepareItems() {
+        clearH2Db();
+        items = itemCatalogApi.createItems(new CreateItemsCommand(IntStream.range(0, 300)
+                .mapToObj(i -> new SaveItemCommand("Item " + i % 50, i % 2 == 0 ? "Blue item" : "Red item", BigDecimal.valueOf(i % 100)))
+                .toList()));
+    }
+
+    @Test
+    void findAllPageable_shouldMatchDatabase() {
+        assertThat(itemColumnStore.isReady()).isTrue();
+        assertThat(itemColumnStore.size()).isEqualTo(items.size());
+
+        assertSameAsDatabase();
+    }
+
+    @Test
+    void findAllPageable_shouldMatchDatabaseAfterChanges() {
+        itemCatalogApi.updateItem(items.get(0).uuid(), new SaveItemCommand("Item 1 updated", "Blue", BigDecimal.TEN));
+        itemCatalogApi.deleteItem(items.get(1).uuid());
+        itemCatalogApi.updatePrices(new BulkUpdatePriceCommand(null, new ItemFetchFilter(null, "Red%", null, null, null),
+                null, null, new BigDecimal("10")));
+        itemCatalogApi.deleteItems(new BulkDeleteItemsCommand(List.of(items.get(2).uuid(), items.get(3).uuid()), null));
+
+        assertThat(itemColumnStore.size()).isEqualTo(items.size() - 3);
+        assertSameAsDatabase();
+    }
+
+    private void assertSameAsDatabase() {
+        for (ItemFetchFilter filter : FILTERS) {
+            for (Sort sort : List.of(Sort.by("id"), Sort.by("name"), Sort.by(Sort.Direction.DESC, "price"), Sort.by("creationDate"))) {
+                for (int page = 0; page < 3; page++) {
+                    final Pageable pageable = PageRequest.of(page, 40, sort);
+                    assertThat(withoutDates(itemCatalogApi.findAllPageable(pageable, filter).getContent()))
+                            .as("%s %s", filter, pageable)
+                            .containsExactlyElementsOf(withoutDates(itemCatalogApi.findAllSlice(pageable, filter).getContent()));
+                }
+            }
+        }
+    }
+
+    // timestamps of items written through events may have finer precision than the column keeps
+    private static List<List<Object>> withoutDates(final List<ItemDto> items) {
+        return items.stream()
+                .map(item -> List.<Object>of(item.uuid(), item.name(), item.description(), item.price(), item.version()))
+                .toList();
+    }
+}
@@ -0,0 +1,205 @@
+package dev.toszek.tiara.items.catalog.internal.columnar;
+
+import dev.toszek.tiara.items.catalog.command.ItemFetchFilter;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.internal.filter.ItemFilterMatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemColumnStoreTest {
+    private static final List<String> WORDS = List.of("Red", "Blue", "Wooden", "Chair", "Table", "Lamp", "Žluťoučký");
+
+    private final Random random = new Random(42);
+    // reference state, expected results are computed from it by brute force
+    private final Map<UUID, ItemDto> items = new HashMap<>();
+    private final Map<UUID, Long> ids = new HashMap<>();
+    private ItemColumnStore store;
+    private long nextId;
+
+    @BeforeEach
+    void setUp() {
+        store = new ItemColumnStore();
+        for (int i = 0; i < 2_000; i++) {
+            upsert(randomItem(UUID.randomUUID(), 0));
+        }
+        store.markReady();
+    }
+
+    @Test
+    void findAll_shouldMatchFilteredAndSortedReference() {
+        assertMatchesReference();
+    }
+
+    @Test
+    void findAll_shouldFollowUpdatesAndRemovals() {
+        // enough changes to merge price delta into the index several times
+        for (int i = 0; i < 5_000; i++) {
+            final List<UUID> uuids = List.copyOf(items.keySet());
+            final UUID uuid = uuids.get(random.nextInt(uuids.size()));
+            switch (random.nextInt(3)) {
+                case 0 -> upsert(randomItem(uuid, items.get(uuid).version() + 1));
+                case 1 -> {
+                    store.remove(uuid);
+                    items.remove(uuid);
+                }
+                default -> upsert(randomItem(UUID.randomUUID(), 0));
+            }
+        }
+
+        assertMatchesReference();
+        assertThat(store.size()).isEqualTo(items.size());
+    }
+
+    @Test
+    void upsert_shouldReclaimTextOfReplacedVersions() {
+        final ItemDto item = items.values().iterator().next();
+        final long bytesBefore = store.estimatedBytes();
+        // ~10MB of replaced descriptions, several compactions of the text buffer
+        for (int version = 1; version <= 10_000; version++) {
+            final ItemDto updated = new ItemDto(item.uuid(), item.name(), version + " " + "x".repeat(1000),
+                    item.price(), item.creationDate(), item.creationDate(), version);
+            upsert(updated);
+        }
+
+        assertMatchesReference();
+        assertThat(store.estimatedBytes()).isLessThan(bytesBefore + 8_000_000);
+    }
+
+    @Test
+    void upsert_shouldIgnoreOlderVersion() {
+        final ItemDto item = items.values().iterator().next();
+        store.upsert(ids.get(item.uuid()), randomItem(item.uuid(), item.version() - 1));
+
+        final Page<ItemDto> page = store.findAll(new ItemFetchFilter(null, null, item.price(), null, null), PageRequest.of(0, 10_000, Sort.by("id")));
+
+        assertThat(page.getContent()).contains(item);
+    }
+
+    @Test
+    void remove_shouldNotBeUndoneByRowsOfInitialLoad() {
+        final ItemColumnStore loading = new ItemColumnStore();
+        final ItemDto item = randomItem(UUID.randomUUID(), 0);
+        // deleted while the load was running, load read the row before
+        loading.remove(item.uuid());
+        loading.upsert(1, item);
+        loading.markReady();
+
+        assertThat(loading.size()).isZero();
+        assertThat(loading.isReady()).isTrue();
+    }
+
+    @Test
+    void upsert_shouldCompactInsteadOfGrowingOverTextLimit() {
+        final ItemColumnStore limited = new ItemColumnStore(100_000);
+        final ItemDto item = randomItem(UUID.randomUUID(), 0);
+        limited.upsert(1, item);
+        limited.markReady();
+        // ~500KB of replaced descriptions, five times the limit, live text stays small
+        ItemDto updated = item;
+        for (int version = 1; version <= 100; version++) {
+            updated = new ItemDto(item.uuid(), item.name(), version + " " + "x".repeat(5000),
+                    item.price(), item.creationDate(), item.creationDate(), version);
+            limited.upsert(1, updated);
+        }
+
+        assertThat(limited.isReady()).isTrue();
+        assertThat(limited.findAll(new ItemFetchFilter(null, null, null, null, null), PageRequest.of(0, 10, Sort.by("id"))).getContent())
+                .containsExactly(updated);
+    }
+
+    @Test
+    void upsert_shouldGiveUpWhenLiveTextsDoNotFit() {
+        final ItemColumnStore limited = new ItemColumnStore(100_000);
+        for (int i = 1; i <= 30; i++) {
+            limited.upsert(i, new ItemDto(UUID.randomUUID(), "Item " + i, "x".repeat(5000), BigDecimal.ONE, null, null, 0));
+        }
+        limited.markReady();
+
+        assertThat(limited.isReady()).isFalse();
+        assertThat(limited.size()).isZero();
+    }
+
+    private void assertMatchesReference() {
+        for (int i = 0; i < 300; i++) {
+            final ItemFetchFilter filter = randomFilter();
+            final Sort.Direction direction = random.nextBoolean() ? Sort.Direction.ASC : Sort.Direction.DESC;
+            final String property = List.of("id", "name", "price", "creationDate").get(random.nextInt(4));
+            final Pageable pageable = PageRequest.of(random.nextInt(3), 1 + random.nextInt(50), Sort.by(direction, property, "id"));
+
+            final List<ItemDto> expected = items.values().stream()
+                    .filter(ItemFilterMatcher.of(filter)::matches)
+                    .sorted(comparator(property, direction))
+                    .toList();
+            final Page<ItemDto> page = store.findAll(filter, pageable);
+
+            assertThat(page.getTotalElements()).as("%s %s", filter, pageable).isEqualTo(expected.size());
+            assertThat(page.getContent()).as("%s %s", filter, pageable).containsExactlyElementsOf(expected.stream()
+                    .skip(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .toList());
+        }
+    }
+
+    private Comparator<ItemDto> comparator(final String property, final Sort.Direction direction) {
+        final Comparator<ItemDto> byId = Comparator.comparing(item -> ids.get(item.uuid()));
+        final Comparator<ItemDto> ascending = switch (property) {
+            // store compares names as UTF-8 bytes, which is code point order
+            case "name" -> Comparator.comparing(ItemDto::name, ItemColumnStoreTest::compareCodePoints).thenComparing(byId);
+            case "price" -> Comparator.comparing(ItemDto::price).thenComparing(byId);
+            case "creationDate" -> Comparator.comparing(ItemDto::creationDate).thenComparing(byId);
+            default -> byId;
+        };
+        return direction.isAscending() ? ascending : ascending.reversed();
+    }
+
+    private static int compareCodePoints(final String a, final String b) {
+        return Arrays.compare(a.codePoints().toArray(), b.codePoints().toArray());
+    }
+
+    private ItemFetchFilter randomFilter() {
+        return new ItemFetchFilter(
+                random.nextInt(4) == 0 ? WORDS.get(random.nextInt(WORDS.size())) + "%" : null,
+                random.nextInt(4) == 0 ? "%" + WORDS.get(random.nextInt(WORDS.size())) + "%" : null,
+                random.nextInt(6) == 0 ? randomPrice() : null,
+                random.nextInt(3) == 0 ? randomPrice() : null,
+                random.nextInt(3) == 0 ? randomPrice() : null);
+    }
+
+    private void upsert(final ItemDto item) {
+        final long id = ids.computeIfAbsent(item.uuid(), uuid -> ++nextId);
+        items.put(item.uuid(), item);
+        store.upsert(id, item);
+    }
+
+    private ItemDto randomItem(final UUID uuid, final int version) {
+        final Instant created = Instant.ofEpochSecond(1_700_000_000L + random.nextInt(1000), random.nextInt(1_000_000) * 1000L);
+        return new ItemDto(uuid,
+                WORDS.get(random.nextInt(WORDS.size())) + " " + WORDS.get(random.nextInt(WORDS.size())),
+                WORDS.get(random.nextInt(WORDS.size())) + " description",
+                randomPrice(),
+                created,
+                version == 0 ? null : created.plusSeconds(1),
+                version);
+    }
+
+    private BigDecimal randomPrice() {
+        // few distinct prices, so equality filters match something and sort ties are common
+        return BigDecimal.valueOf(random.nextInt(500), 2);
+    }
+}
@@ -0,0 +1,127 @@
+package dev.toszek.tiara.items.catalog.internal.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.toszek.tiara.items.catalog.command.ItemFileFormat;
+import dev.toszek.tiara.items.catalog.dto.ItemImportErrorDto;
+import dev.toszek.tiara.items.catalog.dto.ItemImportSummaryDto;
+import dev.toszek.tiara.items.catalog.internal.entity.Item;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangeBatchEvent;
+import dev.toszek.tiara.items.catalog.internal.mapper.ItemMapperImpl;
+import dev.toszek.tiara.items.catalog.internal.repository.ItemRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ItemImporterTest {
+
+    private ItemRepository itemRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private ItemImporter itemImporter;
+    private final List<Integer> chunkSizes = new ArrayList<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        doAnswer(invocation -> {
+            List<Item> chunk = invocation.getArgument(0);
+            chunk.forEach(item -> item.setId(nextId.incrementAndGet()));
+            return chunkSizes.add(chunk.size());
+        }).when(itemRepository).persistAll(any());
+        itemImporter = new ItemImporter(itemRepository, new ItemMapperImpl(),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), eventPublisher, 2, 1, 1000);
+    }
+
+    @Test
+    void importItems_shouldCommitInChunks() {
+        // Prepare input, 5 valid items
+        String input = IntStream.rangeClosed(1, 5)
+                .mapToObj(i -> "{\"name\": \"Item " + i + "\", \"description\": \"Description\", \"price\": " + i + "}")
+                .collect(Collectors.joining("\n"));
+
+        // Test the method
+        ItemImportSummaryDto summary = itemImporter.importItems(new StringReader(input), ItemFileFormat.NDJSON);
+
+        // Verify the result
+        assertThat(summary.created()).isEqualTo(5);
+        assertThat(chunkSizes).containsExactly(2, 2, 1);
+        ArgumentCaptor<ItemChangeBatchEvent> events = ArgumentCaptor.forClass(ItemChangeBatchEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).extracting(event -> event.changes().size()).containsExactly(2, 2, 1);
+        assertThat(events.getAllValues().getFirst().changes().getFirst().after().name()).isEqualTo("Item 1");
+    }
+
+    @Test
+    void importItems_shouldCountAllErrorsButReportOnlyConfiguredNumber() {
+        // Prepare input, three invalid records, only first one is reported
+        String input = "not json\n{\"name\": \"\"}\n{\"name\": \"Item\", \"description\": \"Description\", \"price\": 1}\n[]";
+
+        // Test the method
+        ItemImportSummaryDto summary = itemImporter.importItems(new StringReader(input), ItemFileFormat.NDJSON);
+
+        // Verify the result
+        assertThat(summary.recordsRead()).isEqualTo(4);
+        assertThat(summary.created()).isEqualTo(1);
+        assertThat(summary.failed()).isEqualTo(3);
+        assertThat(summary.errors()).hasSize(1);
+        assertThat(summary.errors().getFirst().line()).isEqualTo(1);
+        assertThat(summary.errorsTruncated()).isTrue();
+    }
+
+    @Test
+    void importItems_shouldReportTooLongRecordAndContinue() {
+        // Prepare input, first record over the limit
+        String input = "{\"name\": \"" + "x".repeat(2000) + "\"}\n{\"name\": \"Item\", \"description\": \"Description\", \"price\": 1}";
+
+        // Test the method
+        ItemImportSummaryDto summary = itemImporter.importItems(new StringReader(input), ItemFileFormat.NDJSON);
+
+        // Verify the result
+        assertThat(summary.created()).isEqualTo(1);
+        assertThat(summary.errors().getFirst().message()).isEqualTo("Record is longer than 1000 characters");
+    }
+
+    @Test
+    void importItems_shouldReportValuesBeyondColumnLimitsAndContinue() {
+        // Prepare input, name longer than its column, price with too many digits and too many decimals
+        String input = "{\"name\": \"" + "x".repeat(300) + "\", \"description\": \"Description\", \"price\": 1}\n"
+                + "{\"name\": \"Item\", \"description\": \"Description\", \"price\": 1e7}\n"
+                + "{\"name\": \"Item\", \"description\": \"Description\", \"price\": 1.234}\n"
+                + "{\"name\": \"Item\", \"description\": \"Description\", \"price\": 1}";
+        ItemImporter importer = new ItemImporter(itemRepository, new ItemMapperImpl(),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), eventPublisher, 2, 10, 1000);
+
+        // Test the method
+        ItemImportSummaryDto summary = importer.importItems(new StringReader(input), ItemFileFormat.NDJSON);
+
+        // Verify the result
+        assertThat(summary.created()).isEqualTo(1);
+        assertThat(summary.failed()).isEqualTo(3);
+        assertThat(summary.errors()).extracting(ItemImportErrorDto::line).containsExactly(1L, 2L, 3L);
+        assertThat(summary.errors().get(0).message()).startsWith("name: ");
+        assertThat(summary.errors().get(1).message()).startsWith("price: ");
+        assertThat(summary.errors().get(2).message()).startsWith("price: ");
+        assertThat(chunkSizes).containsExactly(1);
+    }
+}
@@ -0,0 +1,96 @@
+package dev.toszek.tiara.items.catalog.internal.search;
+
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemSearchIndexTest {
+
+    private final ItemSearchIndex index = new ItemSearchIndex();
+
+    @Test
+    void search_shouldMatchAllTermsAndRankNameMatchesFirst() {
+        ItemDto inName = item("Red bicycle", "Fast and light", 0);
+        ItemDto inDescription = item("Helmet", "Fits any red bicycle rider", 0);
+        ItemDto partial = item("Red car", "Not a bicycle", 0);
+        ItemDto unrelated = item("Blue car", "Family car", 0);
+        index.index(inDescription);
+        index.index(inName);
+        index.index(partial);
+        index.index(unrelated);
+
+        ItemSearchIndex.Hits hits = index.search("bicycle RED", 0, 10);
+
+        assertThat(hits.total()).isEqualTo(3);
+        assertThat(hits.uuids()).startsWith(inName.uuid()).doesNotContain(unrelated.uuid());
+        assertThat(index.search("red bicycle helmet", 0, 10).uuids()).containsExactly(inDescription.uuid());
+        assertThat(index.search("red unicorn", 0, 10).total()).isZero();
+        assertThat(index.search("  ,. ", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void search_shouldIgnoreCaseAndAccents() {
+        ItemDto item = item("Crème brûlée", "Dessert", 0);
+        index.index(item);
+
+        assertThat(index.search("CREME brulee", 0, 10).uuids()).containsExactly(item.uuid());
+    }
+
+    @Test
+    void search_shouldPageThroughRankedHits() {
+        for (int i = 0; i < 25; i++) {
+            index.index(item("Lamp " + i, "Lamp".repeat(i % 2 == 0 ? 1 : 0), 0));
+        }
+
+        ItemSearchIndex.Hits first = index.search("lamp", 0, 10);
+        ItemSearchIndex.Hits last = index.search("lamp", 20, 10);
+
+        assertThat(first.total()).isEqualTo(25);
+        assertThat(first.uuids()).hasSize(10);
+        assertThat(last.uuids()).hasSize(5).doesNotContainAnyElementsOf(first.uuids());
+        assertThat(index.search("lamp", 30, 10).uuids()).isEmpty();
+    }
+
+    @Test
+    void indexAndRemove_shouldReplaceOutdatedContent() {
+        ItemDto item = item("Old name", "Description", 0);
+        index.index(item);
+        index.index(new ItemDto(item.uuid(), "New name", "Description", item.price(), item.creationDate(), item.lastModifiedDate(), 1));
+        // late event of older version is ignored
+        index.index(item);
+
+        assertThat(index.search("old", 0, 10).total()).isZero();
+        assertThat(index.search("new", 0, 10).uuids()).containsExactly(item.uuid());
+        assertThat(index.size()).isEqualTo(1);
+
+        index.remove(item.uuid());
+
+        assertThat(index.search("new", 0, 10).total()).isZero();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void index_shouldKeepResultsAfterCompaction() {
+        ItemDto kept = item("Kept chair", "Wooden", 0);
+        index.index(kept);
+        ItemDto changing = item("Table 0", "Wooden", 0);
+        // every update leaves deleted document behind, enough of them trigger compaction
+        for (int version = 1; version < 5_000; version++) {
+            index.index(new ItemDto(changing.uuid(), "Table " + version, "Wooden", changing.price(), changing.creationDate(), changing.lastModifiedDate(), version));
+        }
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("wooden", 0, 10).uuids()).containsExactlyInAnyOrder(kept.uuid(), changing.uuid());
+        assertThat(index.search("table 4999", 0, 10).uuids()).containsExactly(changing.uuid());
+        assertThat(index.search("table 10", 0, 10).total()).isZero();
+    }
+
+    private static ItemDto item(String name, String description, int version) {
+        return new ItemDto(UUID.randomUUID(), name, description, BigDecimal.TEN, Instant.now(), Instant.now(), version);
+    }
+}
@@ -0,0 +1,56 @@
+package dev.toszek.tiara.items.catalog.internal.search;
+
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.internal.entity.Item;
+import dev.toszek.tiara.items.catalog.internal.event.ItemChangedEvent;
+import dev.toszek.tiara.items.catalog.internal.mapper.ItemMapper;
+import dev.toszek.tiara.items.catalog.internal.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexUpdaterTest {
+
+    @Test
+    void itemDeletedDuringRebuild_shouldNotBeIndexedFromSnapshot() {
+        // Mocking behavior, second item is deleted after rebuild read it, before it was indexed
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        ItemMapper itemMapper = mock(ItemMapper.class);
+        Item kept = new Item();
+        Item deleted = new Item();
+        ItemDto keptDto = item("Kept lamp");
+        ItemDto deletedDto = item("Deleted lamp");
+        when(itemMapper.toDto(kept)).thenReturn(keptDto);
+        when(itemMapper.toDto(deleted)).thenReturn(deletedDto);
+        ItemSearchIndex index = new ItemSearchIndex();
+        ItemSuggestIndex suggestIndex = new ItemSuggestIndex(100);
+        ItemSearchIndexUpdater updater = new ItemSearchIndexUpdater(index, suggestIndex, itemRepository, itemMapper,
+                mock(PlatformTransactionManager.class));
+        when(itemRepository.streamAll(any(), any())).thenAnswer(invocation -> Stream.of(kept, deleted)
+                .peek(item -> {
+                    if (item == deleted) {
+                        updater.onItemChanged(ItemChangedEvent.deleted(2L, deletedDto));
+                    }
+                }));
+
+        // Test the method
+        updater.rebuild();
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(suggestIndex.suggest("deleted", 10)).isEmpty();
+        assertThat(suggestIndex.suggest("kept", 10)).hasSize(1);
+    }
+
+    private static ItemDto item(String name) {
+        return new ItemDto(UUID.randomUUID(), name, "Description", BigDecimal.TEN, Instant.now(), null, 0);
+    }
+}
@@ -0,0 +1,65 @@
+package dev.toszek.tiara.items.catalog.internal.search;
+
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency percentiles and footprint of the typeahead index.
+ * Not part of regular build, run with {@code mvn test -Pbenchmark}, item count with {@code -Dbenchmark.items}.
+ */
+@Slf4j
+@Tag("benchmark")
+class ItemSuggestIndexBenchmarkTest {
+    private static final int ITEMS = Integer.getInteger("benchmark.items", 1_000_000);
+    private static final int WARMUP_LOOKUPS = 200_000;
+    private static final int MEASURED_LOOKUPS = 200_000;
+    private static final String[] WORDS = {"red", "blue", "green", "wooden", "steel", "garden", "kitchen", "chair",
+            "table", "lamp", "hose", "knife", "shelf", "mirror", "rug", "vase", "clock", "basket", "bowl", "pan"};
+
+    @Test
+    void suggest_latencyAndFootprint() {
+        final ItemSuggestIndex index = new ItemSuggestIndex(ITEMS);
+        final Random random = new Random(42);
+        final Instant now = Instant.now();
+        for (int i = 0; i < ITEMS; i++) {
+            index.index(new ItemDto(UUID.randomUUID(), name(random) + " " + i, "", BigDecimal.ONE, now, now, 0));
+        }
+
+        for (int i = 0; i < WARMUP_LOOKUPS; i++) {
+            index.suggest(prefix(random), 10);
+        }
+        final long[] nanos = new long[MEASURED_LOOKUPS];
+        for (int i = 0; i < MEASURED_LOOKUPS; i++) {
+            final String prefix = prefix(random);
+            final long start = System.nanoTime();
+            index.suggest(prefix, 10);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        final long p50 = nanos[MEASURED_LOOKUPS / 2];
+        final long p99 = nanos[(int) (MEASURED_LOOKUPS * 0.99)];
+        log.info("Suggest in {} items: p50 {} us, p99 {} us, max {} us, ~{} bytes per item", ITEMS,
+                p50 / 1000, p99 / 1000, nanos[MEASURED_LOOKUPS - 1] / 1000, index.estimatedBytes() / ITEMS);
+        assertThat(p99).isLessThan(1_000_000);
+    }
+
+    private static String name(final Random random) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String prefix(final Random random) {
+        final String name = name(random);
+        return name.substring(0, 1 + random.nextInt(name.length()));
+    }
+}
@@ -0,0 +1,95 @@
+package dev.toszek.tiara.items.catalog.internal.search;
+
+import dev.toszek.tiara.items.catalog.ItemCatalogApi;
+import dev.toszek.tiara.items.catalog.dto.ItemDto;
+import dev.toszek.tiara.items.catalog.dto.ItemSuggestionDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemSuggestIndexTest {
+
+    private final ItemSuggestIndex index = new ItemSuggestIndex(3);
+
+    @Test
+    void suggest_shouldReturnNamesStartingWithPrefixInAlphabeticalOrder() {
+        ItemDto lampshade = item("Lampshade", 0);
+        ItemDto lamp = item("Lamp", 0);
+        ItemDto desk = item("Desk lamp", 0);
+        index.index(lampshade);
+        index.index(lamp);
+        index.index(desk);
+
+        assertThat(index.suggest("LAM", 10)).extracting(ItemSuggestionDto::uuid).containsExactly(lamp.uuid(), lampshade.uuid());
+        assertThat(index.suggest("lam", 1)).extracting(ItemSuggestionDto::name).containsExactly("Lamp");
+        assertThat(index.suggest("desk  l", 10)).extracting(ItemSuggestionDto::name).containsExactly("Desk lamp");
+        assertThat(index.suggest("chair", 10)).isEmpty();
+    }
+
+    @Test
+    void suggest_shouldNotReturnWholeIndex() {
+        ItemSuggestIndex largeIndex = new ItemSuggestIndex(1000);
+        for (int i = 0; i < 100; i++) {
+            largeIndex.index(item("Lamp " + i, 0));
+        }
+
+        assertThat(largeIndex.suggest("  ", 10)).isEmpty();
+        assertThat(largeIndex.suggest("lamp", Integer.MAX_VALUE)).hasSize(ItemCatalogApi.MAX_SUGGESTIONS);
+    }
+
+    @Test
+    void suggest_shouldIgnoreAccents() {
+        ItemDto item = item("Éclair", 0);
+        index.index(item);
+
+        assertThat(index.suggest("ecl", 10)).containsExactly(new ItemSuggestionDto(item.uuid(), "Éclair"));
+    }
+
+    @Test
+    void indexAndRemove_shouldKeepNamesAndFootprintInSync() {
+        ItemDto item = item("Old name", 0);
+        index.index(item);
+        long footprint = index.estimatedBytes();
+        index.index(new ItemDto(item.uuid(), "New name", "Description", item.price(), item.creationDate(), item.lastModifiedDate(), 1));
+        // late event of older version is ignored
+        index.index(item);
+
+        assertThat(index.suggest("old", 10)).isEmpty();
+        assertThat(index.suggest("new", 10)).extracting(ItemSuggestionDto::uuid).containsExactly(item.uuid());
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.estimatedBytes()).isEqualTo(footprint);
+
+        index.remove(item.uuid());
+
+        assertThat(index.suggest("new", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+        assertThat(index.estimatedBytes()).isZero();
+    }
+
+    @Test
+    void index_shouldNotGrowOverMaxEntries() {
+        ItemDto first = item("Item 1", 0);
+        index.index(first);
+        index.index(item("Item 2", 0));
+        index.index(item("Item 3", 0));
+        index.index(item("Item 4", 0));
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.suggest("item", 10)).extracting(ItemSuggestionDto::name).containsExactly("Item 1", "Item 2", "Item 3");
+
+        // updates of indexed items still apply, removal makes room again
+        index.index(new ItemDto(first.uuid(), "Item 0", "Description", first.price(), first.creationDate(), first.lastModifiedDate(), 1));
+        index.remove(first.uuid());
+        index.index(item("Item 5", 0));
+
+        assertThat(index.suggest("item", 10)).extracting(ItemSuggestionDto::name).containsExactly("Item 2", "Item 3", "Item 5");
+    }
+
+    private static ItemDto item(String name, int version) {
+        return new ItemDto(UUID.randomUUID(), name, "Description", BigDecimal.TEN, Instant.now(), Instant.now(), version);
+    }
+}
@@ -0,0 +1,62 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BoundedConnectionDataSourceTest {
+
+    private DataSource pool;
+    private Connection pooledConnection;
+    private BoundedConnectionDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = mock(DataSource.class);
+        pooledConnection = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(pooledConnection);
+        dataSource = new BoundedConnectionDataSource(pool, 1, Duration.ofMillis(50));
+    }
+
+    @Test
+    void getConnection_shouldFailWhenAllPermitsAreHeld() throws SQLException {
+        try (Connection ignored = dataSource.getConnection()) {
+            assertThat(dataSource.activeConnections()).isEqualTo(1);
+            assertThatExceptionOfType(SQLTransientConnectionException.class)
+                    .isThrownBy(dataSource::getConnection);
+        }
+    }
+
+    @Test
+    void close_shouldReleasePermitOnlyOnce() throws SQLException {
+        final Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        assertThat(dataSource.activeConnections()).isZero();
+        verify(pooledConnection, times(1)).close();
+        try (Connection next = dataSource.getConnection()) {
+            assertThat(next).isNotNull();
+        }
+    }
+
+    @Test
+    void getConnection_shouldReleasePermitWhenPoolFails() throws SQLException {
+        when(pool.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThatExceptionOfType(SQLException.class).isThrownBy(dataSource::getConnection);
+        assertThat(dataSource.activeConnections()).isZero();
+    }
+}
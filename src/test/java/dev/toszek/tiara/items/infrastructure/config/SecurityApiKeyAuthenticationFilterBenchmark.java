@@ -0,0 +1,122 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost the API key check adds to every request, for accepted and for rejected key, with {@code clients} keys
+ * registered and requests coming from several threads at once, as under high request rate. The virtual thread case
+ * checks every request on a new thread, as Tomcat does with {@code spring.threads.virtual.enabled}, compare it
+ * with {@link #newVirtualThread()} to get the cost of the check itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class SecurityApiKeyAuthenticationFilterBenchmark {
+    private static final String API_KEY = "LetMeIn";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    @Param({"1", "10000"})
+    public int clients;
+
+    private Path keysFile;
+    private SecurityApiKeyAuthenticationFilter filter;
+    private MockHttpServletRequest validRequest;
+    private MockHttpServletRequest invalidRequest;
+
+    @Setup
+    public void setUp() throws IOException, NoSuchAlgorithmException {
+        final MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        final List<String> lines = new ArrayList<>();
+        for (int i = 1; i < clients; i++) {
+            final byte[] hash = sha256.digest(("client-key-" + i).getBytes(StandardCharsets.UTF_8));
+            lines.add("client-" + i + ":" + HexFormat.of().formatHex(hash));
+        }
+        keysFile = Files.createTempFile("api-keys", ".txt");
+        Files.write(keysFile, lines);
+        filter = new SecurityApiKeyAuthenticationFilter(authentication -> authentication,
+                new SecurityApiKeyRegistry(null, API_KEY, keysFile));
+        validRequest = apiRequest(API_KEY);
+        invalidRequest = apiRequest("WrongKey");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(keysFile);
+    }
+
+    @Benchmark
+    public int validKey() throws ServletException, IOException {
+        return filter(validRequest);
+    }
+
+    @Benchmark
+    public int invalidKey() throws ServletException, IOException {
+        return filter(invalidRequest);
+    }
+
+    @Benchmark
+    public int validKeyOnNewVirtualThread() throws InterruptedException {
+        final int[] status = new int[1];
+        final Thread thread = Thread.ofVirtual().start(() -> {
+            try {
+                status[0] = filter(validRequest);
+            } catch (ServletException | IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.join();
+        return status[0];
+    }
+
+    @Benchmark
+    public int newVirtualThread() throws InterruptedException {
+        final int[] status = new int[1];
+        final Thread thread = Thread.ofVirtual().start(() -> status[0] = 200);
+        thread.join();
+        return status[0];
+    }
+
+    private int filter(final MockHttpServletRequest request) throws ServletException, IOException {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest apiRequest(final String apiKey) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items/" + UUID.randomUUID());
+        request.addHeader(SecurityApiKeyConstants.API_KEY_HEADER, apiKey);
+        return request;
+    }
+}
@@ -0,0 +1,54 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import dev.toszek.tiara.items.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static io.restassured.RestAssured.given;
+
+class SecurityApiKeyRegistryIntegrationTest extends BaseIntegrationTest {
+    private static final String CLIENT_KEY = "orders-service-key";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SecurityApiKeyRegistry apiKeyRegistry;
+
+    @AfterEach
+    void removeKeys() {
+        jdbcTemplate.update("DELETE FROM api_key");
+        apiKeyRegistry.reload();
+    }
+
+    @Test
+    public void keyFromDatabase_shouldBeAcceptedUntilDisabled() throws Exception {
+        final String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CLIENT_KEY.getBytes(StandardCharsets.UTF_8)));
+        jdbcTemplate.update("INSERT INTO api_key (client_id, key_hash) VALUES (?, ?)", "orders", hash);
+        apiKeyRegistry.reload();
+
+        given()
+                .header(SecurityApiKeyConstants.API_KEY_HEADER, CLIENT_KEY)
+                .when()
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        jdbcTemplate.update("UPDATE api_key SET enabled = FALSE WHERE client_id = ?", "orders");
+        apiKeyRegistry.reload();
+
+        given()
+                .header(SecurityApiKeyConstants.API_KEY_HEADER, CLIENT_KEY)
+                .when()
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.UNAUTHORIZED.value());
+    }
+}
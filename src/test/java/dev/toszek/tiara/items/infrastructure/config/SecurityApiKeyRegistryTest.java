@@ -0,0 +1,120 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecurityApiKeyRegistryTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void authenticate_shouldReturnPrebuiltAuthenticationOfKeyOwner() throws Exception {
+        final Path keysFile = keysFile("# comment", "", "orders:" + sha256("orders-key"), "carts : " + sha256("carts-key"));
+        final SecurityApiKeyRegistry registry = new SecurityApiKeyRegistry(null, "LetMeIn", keysFile);
+
+        assertThat(registry.size()).isEqualTo(3);
+        assertThat(registry.authenticate("LetMeIn").getPrincipal()).isEqualTo(SecurityApiKeyRegistry.DEFAULT_CLIENT);
+        assertThat(registry.authenticate("orders-key").getPrincipal()).isEqualTo("orders");
+        assertThat(registry.authenticate("carts-key").getPrincipal()).isEqualTo("carts");
+        assertThat(registry.authenticate("orders-key")).isSameAs(registry.authenticate("orders-key"));
+        assertThat(registry.authenticate("orders-key").isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void authenticate_shouldRejectUnknownKeys() throws Exception {
+        final SecurityApiKeyRegistry registry = new SecurityApiKeyRegistry(null, "LetMeIn", keysFile("orders:" + sha256("orders-key")));
+
+        assertThat(registry.authenticate("orders-key ")).isNull();
+        assertThat(registry.authenticate("")).isNull();
+        assertThat(registry.authenticate("x".repeat(1000))).isNull();
+        assertThat(registry.authenticate("klíč")).isNull();
+        // stored hash is not a key
+        assertThat(registry.authenticate(sha256("orders-key"))).isNull();
+    }
+
+    @Test
+    void reload_shouldApplyAddedAndRevokedKeys() throws Exception {
+        final Path keysFile = keysFile("orders:" + sha256("orders-key"));
+        final SecurityApiKeyRegistry registry = new SecurityApiKeyRegistry(null, "", keysFile);
+
+        Files.write(keysFile, List.of("carts:" + sha256("carts-key"), "invalid line", "broken:abc"));
+        registry.reload();
+
+        assertThat(registry.size()).isEqualTo(1);
+        assertThat(registry.authenticate("orders-key")).isNull();
+        assertThat(registry.authenticate("carts-key").getPrincipal()).isEqualTo("carts");
+    }
+
+    @Test
+    void reload_shouldKeepKeysWhenFileCanNotBeRead() throws Exception {
+        final Path keysFile = keysFile("orders:" + sha256("orders-key"));
+        final SecurityApiKeyRegistry registry = new SecurityApiKeyRegistry(null, "", keysFile);
+
+        Files.delete(keysFile);
+        registry.reload();
+
+        assertThat(registry.authenticate("orders-key").getPrincipal()).isEqualTo("orders");
+    }
+
+    @Test
+    void authenticate_shouldFindEveryKeyOfLargeRegistry() throws Exception {
+        final String[] lines = new String[5_000];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "client-" + i + ":" + sha256("key-" + i);
+        }
+        final SecurityApiKeyRegistry registry = new SecurityApiKeyRegistry(null, "", keysFile(lines));
+
+        assertThat(registry.size()).isEqualTo(lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertThat(registry.authenticate("key-" + i).getPrincipal()).isEqualTo("client-" + i);
+        }
+    }
+
+    @Test
+    void authenticate_shouldNotMixUpKeysOfConcurrentRequests() throws Exception {
+        final String[] lines = new String[100];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "client-" + i + ":" + sha256("key-" + i);
+        }
+        final SecurityApiKeyRegistry registry = new SecurityApiKeyRegistry(null, "", keysFile(lines));
+        final AtomicInteger mismatches = new AtomicInteger();
+
+        // every request on its own virtual thread, more of them at once than pooled hashers
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int request = 0; request < 20_000; request++) {
+                final int client = request % lines.length;
+                executor.execute(() -> {
+                    final SecurityApiKeyAuthentication authentication = registry.authenticate("key-" + client);
+                    if (authentication == null || !authentication.getPrincipal().equals("client-" + client)) {
+                        mismatches.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        assertThat(mismatches).hasValue(0);
+    }
+
+    private Path keysFile(final String... lines) throws IOException {
+        return Files.write(directory.resolve("api-keys.txt"), List.of(lines));
+    }
+
+    private static String sha256(final String key) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,47 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import dev.toszek.tiara.items.BaseIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.matchesPattern;
+
+@TestPropertySource(properties = {
+        "app.security.rate-limit.enabled=true",
+        "app.security.rate-limit.read.requests-per-second=0.1",
+        "app.security.rate-limit.read.burst=2"})
+class SecurityRateLimitIntegrationTest extends BaseIntegrationTest {
+
+    @Test
+    public void readsOverLimit_shouldGetTooManyRequestsWithRetryAfter() {
+        for (int i = 0; i < 2; i++) {
+            given()
+                    .header(getApiKeyHeader())
+                    .when()
+                    .get(getTestPath("/api/items"))
+                    .then()
+                    .statusCode(HttpStatus.OK.value());
+        }
+
+        given()
+                .header(getApiKeyHeader())
+                .when()
+                .get(getTestPath("/api/items"))
+                .then()
+                .statusCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                .header(HttpHeaders.RETRY_AFTER, matchesPattern("\\d+"))
+                .body("error", equalTo("Too many requests"));
+
+        given()
+                .header(getApiKeyHeader())
+                .when()
+                .get(getTestPath("/actuator/metrics/api.client.requests?tag=client:default&tag=class:read&tag=outcome:limited"))
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("measurements[0].value", equalTo(1.0f));
+    }
+}
@@ -0,0 +1,98 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import dev.toszek.tiara.items.infrastructure.config.SecurityRateLimiter.Limit;
+import dev.toszek.tiara.items.infrastructure.config.SecurityRateLimiter.RequestClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecurityRateLimiterTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(42 * SECOND);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void tryAcquire_shouldAllowBurstAndThenRate() {
+        final SecurityRateLimiter limiter = limiter(100);
+
+        assertThat(limiter.tryAcquire("orders", RequestClass.WRITE)).isZero();
+        assertThat(limiter.tryAcquire("orders", RequestClass.WRITE)).isZero();
+        assertThat(limiter.tryAcquire("orders", RequestClass.WRITE)).isEqualTo(SECOND / 2);
+
+        clock.addAndGet(SECOND / 2);
+        assertThat(limiter.tryAcquire("orders", RequestClass.WRITE)).isZero();
+        assertThat(limiter.tryAcquire("orders", RequestClass.WRITE)).isPositive();
+    }
+
+    @Test
+    void tryAcquire_shouldLimitClassesAndClientsSeparately() {
+        final SecurityRateLimiter limiter = limiter(100);
+
+        limiter.tryAcquire("orders", RequestClass.BULK);
+        assertThat(limiter.tryAcquire("orders", RequestClass.BULK)).isPositive();
+
+        assertThat(limiter.tryAcquire("orders", RequestClass.READ)).isZero();
+        assertThat(limiter.tryAcquire("orders", RequestClass.WRITE)).isZero();
+        assertThat(limiter.tryAcquire("billing", RequestClass.BULK)).isZero();
+    }
+
+    @Test
+    void tryAcquire_shouldCountRequestsPerClient() {
+        final SecurityRateLimiter limiter = limiter(100);
+
+        limiter.tryAcquire("orders", RequestClass.BULK);
+        limiter.tryAcquire("orders", RequestClass.BULK);
+
+        assertThat(meterRegistry.get("api.client.requests").tags("client", "orders", "class", "bulk", "outcome", "allowed")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("api.client.requests").tags("client", "orders", "class", "bulk", "outcome", "limited")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void tryAcquire_shouldKeepBoundedNumberOfClients() {
+        final SecurityRateLimiter limiter = limiter(10);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire("client-" + i, RequestClass.READ);
+        }
+
+        assertThat(limiter.trackedClients()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void evictedClient_shouldHaveItsMetersRemoved() {
+        final SecurityRateLimiter limiter = limiter(1);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("client-" + (i % 2), RequestClass.READ);
+        }
+        final long trackedClients = limiter.trackedClients();
+
+        assertThat(meterRegistry.find("api.client.requests").meters())
+                .hasSize((int) trackedClients * RequestClass.values().length * 2);
+        meterRegistry.find("api.client.requests").tag("outcome", "allowed").tag("class", "read").functionCounters()
+                .forEach(counter -> assertThat(counter.count()).isPositive());
+    }
+
+    @Test
+    void classify_shouldTellBulkFromWritesAndReads() {
+        assertThat(SecurityRateLimitFilter.classify(new MockHttpServletRequest("GET", "/api/items/export"))).isEqualTo(RequestClass.BULK);
+        assertThat(SecurityRateLimitFilter.classify(new MockHttpServletRequest("POST", "/api/items/bulk/delete"))).isEqualTo(RequestClass.BULK);
+        assertThat(SecurityRateLimitFilter.classify(new MockHttpServletRequest("PUT", "/api/items/1"))).isEqualTo(RequestClass.WRITE);
+        assertThat(SecurityRateLimitFilter.classify(new MockHttpServletRequest("POST", "/api/items/batch-get"))).isEqualTo(RequestClass.READ);
+        assertThat(SecurityRateLimitFilter.classify(new MockHttpServletRequest("GET", "/api/items/1"))).isEqualTo(RequestClass.READ);
+    }
+
+    private SecurityRateLimiter limiter(final long maxClients) {
+        final SecurityRateLimiter.Properties properties = new SecurityRateLimiter.Properties(true,
+                new Limit(100, 10), new Limit(2, 2), new Limit(1, 1), maxClients, Duration.ofMinutes(10));
+        return new SecurityRateLimiter(properties, meterRegistry, clock::get);
+    }
+}
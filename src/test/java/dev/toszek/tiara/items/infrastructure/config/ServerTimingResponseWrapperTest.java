@@ -0,0 +1,49 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServerTimingResponseWrapperTest {
+
+    @Test
+    void smallBody_shouldBeHeldBackUntilFinish() throws IOException {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final ServerTimingResponseWrapper wrapper = new ServerTimingResponseWrapper(response, 1024,
+                () -> response.setHeader("Server-Timing", "total;dur=1"));
+
+        wrapper.getOutputStream().write("{\"name\":\"Item\"}".getBytes(StandardCharsets.UTF_8));
+        wrapper.getOutputStream().flush();
+        wrapper.flushBuffer();
+
+        assertThat(response.isCommitted()).isFalse();
+        assertThat(response.getContentAsString()).isEmpty();
+
+        wrapper.finish();
+
+        assertThat(response.getHeader("Server-Timing")).isEqualTo("total;dur=1");
+        assertThat(response.getContentAsString()).isEqualTo("{\"name\":\"Item\"}");
+    }
+
+    @Test
+    void largeBody_shouldBeStreamedOnceLimitIsReached() throws IOException {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final ServerTimingResponseWrapper wrapper = new ServerTimingResponseWrapper(response, 4,
+                () -> response.setHeader("Server-Timing", "total;dur=1"));
+
+        wrapper.getWriter().write("line 1\n");
+        wrapper.getWriter().flush();
+
+        assertThat(response.getHeader("Server-Timing")).isEqualTo("total;dur=1");
+        assertThat(response.getContentAsString()).isEqualTo("line 1\n");
+
+        wrapper.getWriter().write("line 2\n");
+        wrapper.finish();
+
+        assertThat(response.getContentAsString()).isEqualTo("line 1\nline 2\n");
+    }
+}
@@ -0,0 +1,95 @@
+package dev.toszek.tiara.items.infrastructure.config;
+
+import dev.toszek.tiara.shared.sql.SqlStatementStats;
+import dev.toszek.tiara.shared.sql.SqlStatementTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class StatementAccountingDataSourceTest {
+
+    private DriverManagerDataSource database;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = database.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE thing (id INT PRIMARY KEY, name VARCHAR(100))");
+        }
+    }
+
+    @Test
+    void statements_shouldBeCountedWithRowsInEveryOpenScope() throws SQLException {
+        final StatementAccountingDataSource dataSource = new StatementAccountingDataSource(database, Duration.ofMinutes(1));
+        final SqlStatementStats outer;
+        final SqlStatementStats inner;
+
+        try (SqlStatementTracker.Scope outerScope = SqlStatementTracker.open();
+             Connection connection = dataSource.getConnection()) {
+            outer = outerScope.stats();
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO thing (id, name) VALUES (?, ?)")) {
+                for (int i = 0; i < 3; i++) {
+                    insert.setInt(1, i);
+                    insert.setString(2, "Thing " + i);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            try (SqlStatementTracker.Scope innerScope = SqlStatementTracker.open();
+                 PreparedStatement select = connection.prepareStatement("SELECT name FROM thing WHERE id < ?")) {
+                inner = innerScope.stats();
+                select.setInt(1, 2);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    while (resultSet.next()) {
+                        assertThat(resultSet.getString(1)).startsWith("Thing");
+                    }
+                }
+            }
+        }
+
+        assertThat(inner.statements()).isEqualTo(1);
+        assertThat(inner.rows()).isEqualTo(2);
+        assertThat(inner.sql()).containsExactly("SELECT name FROM thing WHERE id < ?");
+        assertThat(outer.statements()).isEqualTo(2);
+        assertThat(outer.rows()).isEqualTo(5);
+        assertThat(outer.jdbcNanos()).isPositive();
+        assertThat(SqlStatementTracker.isTracking()).isFalse();
+    }
+
+    @Test
+    void statements_shouldRunWithoutScope() throws SQLException {
+        final StatementAccountingDataSource dataSource = new StatementAccountingDataSource(database, Duration.ofMinutes(1));
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            assertThat(statement.executeUpdate("INSERT INTO thing (id, name) VALUES (1, 'Thing')")).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void slowStatement_shouldBeLoggedWithBinds(final CapturedOutput output) throws SQLException {
+        final StatementAccountingDataSource dataSource = new StatementAccountingDataSource(database, Duration.ZERO);
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement update = connection.prepareStatement("UPDATE thing SET name = ? WHERE id = ?")) {
+            update.setString(1, "Renamed");
+            update.setInt(2, 42);
+            update.executeUpdate();
+        }
+
+        assertThat(output).contains("Slow SQL took", "UPDATE thing SET name = ? WHERE id = ?", "binds [Renamed, 42]");
+    }
+}
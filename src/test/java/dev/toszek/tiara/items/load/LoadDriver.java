@@ -0,0 +1,102 @@
+package dev.toszek.tiara.items.load;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: requests are started on a fixed schedule regardless of how long earlier ones take,
+ * each on its own virtual thread, and latency is measured from the time request was scheduled, not sent.
+ * A server stall then shows as latency of every request due meanwhile, rather than as a few slow requests
+ * hidden among fewer sent ones (coordinated omission).
+ */
+public final class LoadDriver {
+    private final HttpClient httpClient;
+    private final List<LoadOperation> operations;
+    private final int totalWeight;
+
+    public LoadDriver(final HttpClient httpClient, final List<LoadOperation> operations) {
+        this.httpClient = httpClient;
+        this.operations = List.copyOf(operations);
+        this.totalWeight = operations.stream().mapToInt(LoadOperation::weight).sum();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Load mix needs at least one operation with positive weight");
+        }
+    }
+
+    /**
+     * Sends {@code requestsPerSecond} requests per second for warmup and then for measured duration,
+     * only requests scheduled after warmup are reported. Returns once all sent requests are answered.
+     */
+    public LoadReport run(final int requestsPerSecond, final Duration warmup, final Duration duration) {
+        final Map<String, LoadReport.EndpointRecorder> recorders = new LinkedHashMap<>();
+        operations.forEach(operation -> recorders.put(operation.name(), new LoadReport.EndpointRecorder()));
+        final long interval = 1_000_000_000L / requestsPerSecond;
+        final long start = System.nanoTime();
+        final long measuredFrom = start + warmup.toNanos();
+        final long end = measuredFrom + duration.toNanos();
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long scheduledAt = start; scheduledAt < end; scheduledAt += interval) {
+                waitUntil(scheduledAt);
+                final LoadOperation operation = pick();
+                final LoadReport.EndpointRecorder recorder = scheduledAt >= measuredFrom ? recorders.get(operation.name()) : null;
+                final long requestScheduledAt = scheduledAt;
+                senders.execute(() -> send(operation, requestScheduledAt, recorder));
+            }
+        }
+        return new LoadReport(requestsPerSecond, duration, recorders);
+    }
+
+    private void send(final LoadOperation operation, final long scheduledAt, final LoadReport.EndpointRecorder recorder) {
+        final HttpRequest request = operation.request().get();
+        if (request == null) {
+            if (recorder != null) {
+                recorder.skipped();
+            }
+            return;
+        }
+        boolean success;
+        try {
+            final HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            success = response.statusCode() / 100 == 2;
+            if (success) {
+                operation.onSuccess().accept(response);
+            }
+        } catch (IOException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (recorder != null) {
+            recorder.record(System.nanoTime() - scheduledAt, success);
+        }
+    }
+
+    private LoadOperation pick() {
+        int remaining = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (LoadOperation operation : operations) {
+            remaining -= operation.weight();
+            if (remaining < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Weights changed during run");
+    }
+
+    private static void waitUntil(final long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package dev.toszek.tiara.items.load;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * One kind of request in a load mix, picked with probability proportional to its weight.
+ *
+ * @param request   builds next request, null when operation can not run now (e.g. nothing left to delete)
+ * @param onSuccess called with every 2xx response, e.g. to remember created item
+ */
+public record LoadOperation(String name,
+                            int weight,
+                            Supplier<HttpRequest> request,
+                            Consumer<HttpResponse<String>> onSuccess) {
+
+    public LoadOperation(final String name, final int weight, final Supplier<HttpRequest> request) {
+        this(name, weight, request, response -> {
+        });
+    }
+}
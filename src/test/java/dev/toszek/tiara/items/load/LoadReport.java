@@ -0,0 +1,114 @@
+package dev.toszek.tiara.items.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput and latency percentiles per operation of one {@link LoadDriver} run, plus all operations together.
+ */
+public final class LoadReport {
+    public static final String ALL = "all";
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final int targetRate;
+    private final Duration duration;
+    private final List<Row> rows = new ArrayList<>();
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+
+    LoadReport(final int targetRate, final Duration duration, final Map<String, EndpointRecorder> recorders) {
+        this.targetRate = targetRate;
+        this.duration = duration;
+        final Histogram all = new Histogram(3);
+        long allErrors = 0;
+        long allSkipped = 0;
+        for (Map.Entry<String, EndpointRecorder> entry : recorders.entrySet()) {
+            final EndpointRecorder recorder = entry.getValue();
+            final Histogram histogram = recorder.latencies.copy();
+            all.add(histogram);
+            allErrors += recorder.errors.sum();
+            allSkipped += recorder.skipped.sum();
+            histograms.put(entry.getKey(), histogram);
+            rows.add(row(entry.getKey(), histogram, recorder.errors.sum(), recorder.skipped.sum()));
+        }
+        histograms.put(ALL, all);
+        rows.add(row(ALL, all, allErrors, allSkipped));
+    }
+
+    public List<Row> rows() {
+        return rows;
+    }
+
+    public Row row(final String name) {
+        return rows.stream().filter(row -> row.name().equals(name)).findFirst().orElseThrow();
+    }
+
+    /**
+     * Full percentile distribution of every operation in HdrHistogram text format ({@code <name>.hgrm}, milliseconds),
+     * it can be plotted with HdrHistogram plotter or compared between runs.
+     */
+    public void writeHistograms(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm")))) {
+                entry.getValue().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder report = new StringBuilder("Target %d req/s for %d s%n".formatted(targetRate, duration.toSeconds()));
+        report.append("%-10s %9s %9s %9s %9s %9s %9s %7s %7s%n".formatted(
+                "operation", "count", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors", "skipped"));
+        for (Row row : rows) {
+            report.append("%-10s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7d %7d%n".formatted(row.name(), row.count(),
+                    row.throughput(), row.p50Millis(), row.p99Millis(), row.p999Millis(), row.maxMillis(), row.errors(), row.skipped()));
+        }
+        return report.toString();
+    }
+
+    private Row row(final String name, final Histogram histogram, final long errors, final long skipped) {
+        return new Row(name, histogram.getTotalCount(), (double) histogram.getTotalCount() / duration.toSeconds(),
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMaxValue() / NANOS_PER_MILLI,
+                errors, skipped);
+    }
+
+    /**
+     * @param count requests answered, errors included, skipped excluded
+     */
+    public record Row(String name, long count, double throughput, double p50Millis, double p99Millis, double p999Millis,
+                      double maxMillis, long errors, long skipped) {
+    }
+
+    static final class EndpointRecorder {
+        // auto-resizing, 3 significant digits
+        private final ConcurrentHistogram latencies = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+
+        void record(final long latencyNanos, final boolean success) {
+            latencies.recordValue(latencyNanos);
+            if (!success) {
+                errors.increment();
+            }
+        }
+
+        void skipped() {
+            skipped.increment();
+        }
+    }
+}